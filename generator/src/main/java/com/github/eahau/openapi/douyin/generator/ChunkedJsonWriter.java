@@ -0,0 +1,229 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import com.google.common.collect.Lists;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 与 {@link Json#pretty()} 输出完全相同，但 paths 下的每个 {@link PathItem}、components.schemas 下的每个 {@link Schema}
+ * 先在多个线程中各自序列化为字符串，再由主线程按原有顺序原样写入.
+ * <p>
+ * 与 {@link Json#pretty(Object)} 一致只写入 {@link Writer}：jackson 直接写字节时会将代理对（如 emoji）转义为 \\uXXXX.
+ * <p>
+ * 单独序列化时按其在文档中的层级缩进，写入时层级不符（同一对象出现在其他位置）则照常序列化.
+ */
+final class ChunkedJsonWriter {
+
+    /**
+     * paths.{path}
+     */
+    static final int PATH_ITEM_LEVEL = 2;
+
+    /**
+     * components.schemas.{name}
+     */
+    static final int SCHEMA_LEVEL = 3;
+
+    @AllArgsConstructor
+    static final class Chunk {
+
+        final int level;
+
+        final String json;
+    }
+
+    /**
+     * 当前线程正在写入的文档中已序列化好的对象.
+     */
+    static final ThreadLocal<Map<Object, Chunk>> CHUNKS = new ThreadLocal<>();
+
+    static final ObjectMapper MAPPER = Json.mapper().copy().registerModule(
+            new SimpleModule("chunked-json-writer").setSerializerModifier(new BeanSerializerModifier() {
+                @Override
+                public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+                    final Class<?> beanClass = beanDesc.getBeanClass();
+                    if (PathItem.class.isAssignableFrom(beanClass) || Schema.class.isAssignableFrom(beanClass)) {
+                        return ChunkSerializer.wrap(serializer);
+                    }
+                    return serializer;
+                }
+            })
+    );
+
+    static void write(OpenAPI openAPI, Writer out) throws IOException {
+        final Map<Object, Chunk> chunks = serializeChunks(openAPI);
+
+        CHUNKS.set(chunks);
+        try {
+            MAPPER.writer(new DefaultPrettyPrinter()).writeValue(out, openAPI);
+        } finally {
+            CHUNKS.remove();
+        }
+    }
+
+    static Map<Object, Chunk> serializeChunks(OpenAPI openAPI) {
+        final List<Object> values = Lists.newArrayList();
+        final List<Integer> levels = Lists.newArrayList();
+        if (openAPI.getPaths() != null) {
+            openAPI.getPaths().values().forEach(it -> {
+                values.add(it);
+                levels.add(PATH_ITEM_LEVEL);
+            });
+        }
+        if (openAPI.getComponents() != null && openAPI.getComponents().getSchemas() != null) {
+            openAPI.getComponents().getSchemas().values().forEach(it -> {
+                values.add(it);
+                levels.add(SCHEMA_LEVEL);
+            });
+        }
+
+        final List<String> json = IntStream.range(0, values.size())
+                .parallel()
+                .mapToObj(i -> serialize(values.get(i), levels.get(i)))
+                .collect(Collectors.toList());
+
+        final Map<Object, Chunk> chunks = new IdentityHashMap<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            chunks.put(values.get(i), new Chunk(levels.get(i), json.get(i)));
+        }
+        return chunks;
+    }
+
+    @SneakyThrows
+    static String serialize(Object value, int level) {
+        return writer(level).writeValueAsString(value);
+    }
+
+    static ObjectWriter writer(int level) {
+        final DefaultIndenter indenter = DefaultIndenter.SYSTEM_LINEFEED_INSTANCE;
+        return MAPPER.writer(new DefaultPrettyPrinter().withObjectIndenter(new DefaultPrettyPrinter.Indenter() {
+            @Override
+            public void writeIndentation(JsonGenerator g, int nesting) throws IOException {
+                indenter.writeIndentation(g, nesting + level);
+            }
+
+            @Override
+            public boolean isInline() {
+                return indenter.isInline();
+            }
+        }));
+    }
+
+    /**
+     * 写入位置的层级，即外层对象、数组的数量.
+     */
+    static int level(JsonGenerator gen) {
+        int level = 0;
+        for (JsonStreamContext context = gen.getOutputContext(); !context.inRoot(); context = context.getParent()) {
+            level++;
+        }
+        return level;
+    }
+
+    @AllArgsConstructor
+    static final class ChunkSerializer<T> extends JsonSerializer<T> implements ContextualSerializer, ResolvableSerializer {
+
+        final JsonSerializer<T> delegate;
+
+        static <T> JsonSerializer<T> wrap(JsonSerializer<T> delegate) {
+            return new ChunkSerializer<>(delegate);
+        }
+
+        @Override
+        public void serialize(T value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            final Map<Object, Chunk> chunks = CHUNKS.get();
+            final Chunk chunk = chunks == null ? null : chunks.get(value);
+            if (chunk != null && chunk.level == level(gen)) {
+                chunks.remove(value);
+                gen.writeRawValue(chunk.json);
+            } else {
+                delegate.serialize(value, gen, serializers);
+            }
+        }
+
+        @Override
+        public void serializeWithType(T value, JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+            delegate.serializeWithType(value, gen, serializers, typeSer);
+        }
+
+        /**
+         * 展开写入时由外层负责对象的起止，不能使用已序列化的文本.
+         */
+        @Override
+        public JsonSerializer<T> unwrappingSerializer(NameTransformer unwrapper) {
+            return delegate.unwrappingSerializer(unwrapper);
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, T value) {
+            return delegate.isEmpty(provider, value);
+        }
+
+        @Override
+        public Class<T> handledType() {
+            return delegate.handledType();
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer) {
+                ((ResolvableSerializer) delegate).resolve(provider);
+            }
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property) throws JsonMappingException {
+            if (!(delegate instanceof ContextualSerializer)) {
+                return this;
+            }
+            final JsonSerializer<?> contextual = ((ContextualSerializer) delegate).createContextual(prov, property);
+            return contextual == delegate ? this : wrap(contextual);
+        }
+    }
+
+}
@@ -16,6 +16,8 @@
 package com.github.eahau.openapi.douyin.generator;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.gson.annotations.SerializedName;
@@ -29,6 +31,8 @@ import io.swagger.v3.oas.models.media.ObjectSchema;
 import io.swagger.v3.oas.models.media.Schema;
 import io.swagger.v3.oas.models.media.StringSchema;
 import io.swagger.v3.oas.models.parameters.Parameter;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.collections4.CollectionUtils;
@@ -38,13 +42,11 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.StringTokenizer;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -57,6 +59,50 @@ import java.util.stream.Stream;
 @Setter
 public class DocField {
 
+    /**
+     * 名称、类型及较短的描述在各文档中大量重复，解析时统一复用同一实例.
+     */
+    static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+    /**
+     * 超过该长度的描述很少重复，不做 intern.
+     */
+    static final int INTERN_DESC_MAX_LENGTH = 32;
+
+    static String intern(String value) {
+        return value == null ? null : STRINGS.intern(value);
+    }
+
+    /**
+     * 影响字段路径的修改（名称、类型推断、上级）的全局序号.
+     */
+    static final AtomicLong MODIFICATIONS = new AtomicLong();
+
+    /**
+     * 缓存的上级对象及路径，计算之后上级链上任一字段被修改则失效.
+     */
+    @AllArgsConstructor
+    static final class Path {
+
+        final long computedAt;
+
+        final DocField parent;
+
+        final String parentName;
+    }
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient long modifiedAt;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient Path path;
+
+    private void modified() {
+        this.modifiedAt = MODIFICATIONS.incrementAndGet();
+    }
+
     /**
      * 字段名称.
      */
@@ -68,6 +114,16 @@ public class DocField {
      */
     private String type;
 
+    public void setName(String name) {
+        this.name = intern(name);
+        modified();
+    }
+
+    public void setType(String type) {
+        this.type = intern(type);
+        modified();
+    }
+
     public boolean isBinaryType() {
         return StringUtils.equalsAny(getType(), "binary", "form-data");
     }
@@ -81,23 +137,26 @@ public class DocField {
             return "string";
         }
 
-        return Stream.of(getDefV(), getExample())
-                .filter(Objects::nonNull)
-                .map(v -> {
-                    String type;
-                    if (NumberUtils.isCreatable(v)) {
-                        type = "number";
-                    } else if (StringUtils.equalsAnyIgnoreCase(v, "true", "false")) {
-                        type = "bool";
-                    } else {
-                        type = "string";
-                    }
-
-                    setType(type);
-                    return type;
-                })
-                .findFirst()
-                .orElse("struct");
+        final String v = getDefV() != null ? getDefV() : getExample();
+        if (v == null) {
+            return "struct";
+        }
+
+        final String type;
+        if (NumberUtils.isCreatable(v)) {
+            type = "number";
+        } else if (StringUtils.equalsAnyIgnoreCase(v, "true", "false")) {
+            type = "bool";
+        } else {
+            type = "string";
+        }
+
+        setType(type);
+        return type;
+    }
+
+    FieldType getFieldType() {
+        return FieldType.of(getType());
     }
 
     /**
@@ -115,6 +174,11 @@ public class DocField {
      */
     private String defV;
 
+    public void setDefV(String defV) {
+        this.defV = defV;
+        modified();
+    }
+
     /**
      * 最大长度.
      */
@@ -125,27 +189,80 @@ public class DocField {
      */
     private String example;
 
+    public void setExample(String example) {
+        this.example = example;
+        modified();
+    }
+
+    /**
+     * 大部分字段没有子字段，首次 {@link #getChildren()} 或 {@link #addChild} 时才创建.
+     */
     @SerializedName(value = "children", alternate = {"fields"})
-    private List<DocField> children = Lists.newLinkedList();
+    private List<DocField> children;
 
-    private Map<String, List<DocField>> otherSchemas = Maps.newHashMap();
+    /**
+     * 同名的其他结构，没有时为 null.
+     */
+    private Map<String, List<DocField>> otherSchemas;
+
+    /**
+     * 子字段列表可能被多个字段共享，返回的列表可修改.
+     */
+    public List<DocField> getChildren() {
+        if (children == null) {
+            children = Lists.newArrayList();
+        }
+        return children;
+    }
+
+    /**
+     * 不创建子字段列表，供 {@link ParseCache} 读写.
+     */
+    List<DocField> getDeclaredChildren() {
+        return children;
+    }
+
+    public boolean hasChildren() {
+        return CollectionUtils.isNotEmpty(children);
+    }
+
+    public void addChild(DocField child) {
+        getChildren().add(child);
+    }
 
     public void addSchema(List<DocField> children) {
-        final Map<String, List<DocField>> otherSchemas = getOtherSchemas();
+        if (otherSchemas == null) {
+            otherSchemas = Maps.newHashMap();
+        }
         otherSchemas.put(getName() + (otherSchemas.size() + 1), children);
     }
 
-    public List<DocField> flatChildren() {
-        final List<DocField> children = getChildren();
+    /**
+     * gson 反序列化不经过 setter，解析后补上 intern.
+     */
+    public DocField intern() {
+        this.name = intern(name);
+        this.type = intern(type);
+        this.desc = internDesc(desc);
+        if (children != null) {
+            children.forEach(DocField::intern);
+        }
+        return this;
+    }
+
+    static String internDesc(String desc) {
+        return desc == null || desc.length() > INTERN_DESC_MAX_LENGTH ? desc : intern(desc);
+    }
 
-        if (CollectionUtils.isEmpty(children)) {
+    public List<DocField> flatChildren() {
+        if (!hasChildren()) {
             return Collections.emptyList();
         }
 
         final List<DocField> list = Lists.newLinkedList();
 
         for (final DocField docField : children) {
-            if (CollectionUtils.isEmpty(docField.getChildren())) {
+            if (!docField.hasChildren()) {
                 list.add(docField);
             } else {
                 list.addAll(docField.flatChildren());
@@ -157,40 +274,77 @@ public class DocField {
 
     private DocField parent;
 
+    public void setParent(DocField parent) {
+        this.parent = parent;
+        modified();
+    }
+
+    /**
+     * 最近的对象类型的上级.
+     */
     public DocField getParent() {
+        return path().parent;
+    }
+
+    private Path path() {
+        Path path = this.path;
+        if (path != null && isPathValid(path.computedAt)) {
+            return path;
+        }
+
         DocField parent = this.parent;
+        if (parent != null && !parent.isObjectType()) {
+            parent = parent.getParent();
+        }
+
+        final String parentName;
+        if (parent == null) {
+            parentName = "";
+        } else {
+            String name = parent.getName();
+            if (parent.getType().startsWith("[]")) {
+                name += "[0]";
+            }
+            parentName = parent.getParent() == null ? String.valueOf(name) : parent.getParentName() + "." + name;
+        }
+
+        // 计算过程中的类型推断也算在内
+        path = new Path(MODIFICATIONS.get(), parent, parentName);
+        this.path = path;
 
-        while (parent != null) {
-            if (parent.isObjectType()) {
-                break;
+        return path;
+    }
+
+    private boolean isPathValid(long computedAt) {
+        for (DocField it = this; it != null; it = it.parent) {
+            if (it.modifiedAt > computedAt) {
+                return false;
             }
-            parent = parent.getParent();
         }
+        return true;
+    }
 
+    /**
+     * 以下供 {@link ParseCache} 读写原始字段，不做类型推断，也没有 {@link #setDesc} 的副作用.
+     */
+    String getDeclaredType() {
+        return type;
+    }
+
+    DocField getDeclaredParent() {
         return parent;
     }
 
+    void setDeclaredDesc(String desc) {
+        this.desc = internDesc(desc);
+    }
+
     public boolean isRootObject() {
         return getParent() == null;
     }
 
     public String getParentName() {
-        DocField parent = getParent();
-        if (parent == null) {
-            return "";
-        }
-
-        final LinkedList<String> list = Lists.newLinkedList();
-        while (parent != null) {
-            String name = parent.getName();
-            if (parent.getType().startsWith("[]")) {
-                name += "[0]";
-            }
-            list.addFirst(name);
-            parent = parent.getParent();
-        }
-
-        return String.join(".", list);
+        return path().parentName;
     }
 
     public String getFullName() {
@@ -202,7 +356,7 @@ public class DocField {
     }
 
     public void setDesc(String value) {
-        this.desc = value;
+        this.desc = internDesc(value);
         if (StringUtils.equalsAnyIgnoreCase(getName(), "content-type")) {
             if (StringUtils.containsIgnoreCase(value, "application/json")) {
                 setDefV("application/json");
@@ -232,7 +386,7 @@ public class DocField {
             if (StringUtils.equalsAny(getName(), "msg") && getType().equals("string")) {
                 if (StringUtils.containsIgnoreCase(value, "json")) {
                     /**
-                     * @see #isObjectType(String)
+                     * @see FieldType#isObjectType()
                      */
                     setType("Json Object");
                 }
@@ -241,24 +395,21 @@ public class DocField {
     }
 
     public boolean isObjectType() {
-        final String type = getType();
-        return isObjectType(type) || !isPrimitiveType(type);
-    }
-
-    private static boolean isObjectType(String type) {
-        return StringUtils.equalsAny(type, "object", "struct", "strcut", "Json Object");
+        final FieldType fieldType = getFieldType();
+        return fieldType.isObjectType() || !isPrimitiveType(fieldType);
     }
 
     public boolean isArrayType() {
-        return StringUtils.containsAnyIgnoreCase(getType(), "[]", "list", "array");
+        return getFieldType().isArrayType();
     }
 
     public boolean isMapType() {
-        return StringUtils.startsWithIgnoreCase(getType(), "map");
+        return getFieldType().isMapType();
     }
 
     public boolean isArrayObject() {
-        return isArrayType() && isObjectType(getLastParamType());
+        final FieldType fieldType = getFieldType();
+        return fieldType.isArrayType() && fieldType.getLastParam().isObjectType();
     }
 
     public boolean isArrayOrObject() {
@@ -304,78 +455,69 @@ public class DocField {
 
     private Schema schema;
 
-    Schema toPrimitiveSchema(String type) {
+    Schema toPrimitiveSchema(FieldType type) {
         final Schema schema = toPrimitiveSchemaOrNull(type);
         if (schema == null) {
-            throw new IllegalArgumentException(getName() + " unknown type: " + type);
+            throw new IllegalArgumentException(getName() + " unknown type: " + type.getRaw());
         }
 
         return schema;
     }
 
-    boolean isPrimitiveType(String type) {
-        return toPrimitiveSchemaOrNull(type) != null;
+    /**
+     * 与 {@link #toPrimitiveSchemaOrNull} 一致，不创建 schema.
+     */
+    boolean isPrimitiveType(FieldType type) {
+        return type.getPrimitive() != null || isBinaryType();
     }
 
-    Schema toPrimitiveSchemaOrNull(String type) {
+    Schema toPrimitiveSchemaOrNull(FieldType type) {
         final String defV = getDefV();
-        if (type.contains("bool")) {
-            return new BooleanSchema()._default(Boolean.parseBoolean(defV));
+        if (type.getPrimitive() == null) {
+            return isBinaryType() ? new FileSchema() : null;
         }
-        if (StringUtils.equalsAnyIgnoreCase(type, "sting", "string")) {
-            return new StringSchema()._default(defV);
-        }
-        if (StringUtils.containsAny(type, "int", "i32")) {
-            final IntegerSchema numberSchema = new IntegerSchema();
-            if (NumberUtils.isCreatable(defV)) {
-                numberSchema._default(NumberUtils.toInt(defV));
+        switch (type.getPrimitive()) {
+            case BOOL:
+                return new BooleanSchema()._default(Boolean.parseBoolean(defV));
+            case STRING:
+                return new StringSchema()._default(defV);
+            case INT32: {
+                final IntegerSchema numberSchema = new IntegerSchema();
+                if (NumberUtils.isCreatable(defV)) {
+                    numberSchema._default(NumberUtils.toInt(defV));
+                }
+                return numberSchema;
             }
-            return numberSchema;
-        }
-        if (StringUtils.containsAny(type, "i64", "int64", "long")) {
-            final IntegerSchema numberSchema = new IntegerSchema();
-            numberSchema.type("integer").format("int64");
-            if (NumberUtils.isCreatable(defV)) {
-                numberSchema._default(NumberUtils.toLong(defV));
+            case INT64: {
+                final IntegerSchema numberSchema = new IntegerSchema();
+                numberSchema.type("integer").format("int64");
+                if (NumberUtils.isCreatable(defV)) {
+                    numberSchema._default(NumberUtils.toLong(defV));
+                }
+                return numberSchema;
             }
-            return numberSchema;
-        }
-        if (StringUtils.containsAny(type, "float", "double", "number")) {
-            final Schema numberSchema = new Schema();
-            numberSchema.type("number").format("double");
-            if (NumberUtils.isCreatable(defV)) {
-                numberSchema._default(NumberUtils.toDouble(defV));
+            default: {
+                final Schema numberSchema = new Schema();
+                numberSchema.type("number").format("double");
+                if (NumberUtils.isCreatable(defV)) {
+                    numberSchema._default(NumberUtils.toDouble(defV));
+                }
+                return numberSchema;
             }
-            return numberSchema;
-        }
-        if (isBinaryType()) {
-            return new FileSchema();
         }
-
-        return null;
     }
 
     String getLastParamType() {
-        final String type = getType();
-        StringTokenizer tokenizer = new StringTokenizer(type, "[]<>(),");
-
-        String paramType = "object";
-        while (tokenizer.hasMoreTokens()) {
-            final String token = tokenizer.nextToken();
-            if (!StringUtils.equalsAnyIgnoreCase(token, "list", "array")) {
-                paramType = token;
-            }
-        }
-
-        return paramType;
+        return getFieldType().getLastParamType();
     }
 
     boolean isPrimitiveArrayType() {
-        return isArrayType() && isPrimitiveType(getLastParamType());
+        final FieldType fieldType = getFieldType();
+        return fieldType.isArrayType() && isPrimitiveType(fieldType.getLastParam());
     }
 
     Schema toObjectSchema() {
-        final List<DocField> children = getChildren();
+        final List<DocField> children = this.children == null ? Collections.<DocField>emptyList() : this.children;
         final Schema schema;
         final DocField childField;
         if (children.size() == 1 && !(childField = children.get(0)).isObjectType() && !childField.isPrimitiveArrayType()) {
@@ -397,21 +539,19 @@ public class DocField {
 
         if (this.schema == null) {
 
-            final String type = getType();
+            final FieldType type = getFieldType();
 
             final String defV = getDefV();
             if (isArrayObject()) {
                 setSchema(new ArraySchema().items(toObjectSchema())._default(defV));
-            } else if (isArrayType()) {
-                final String paramType = getLastParamType();
-                final Schema schema = Optional.ofNullable(toPrimitiveSchemaOrNull(paramType))
+            } else if (type.isArrayType()) {
+                final Schema schema = Optional.ofNullable(toPrimitiveSchemaOrNull(type.getLastParam()))
                         .orElseGet(this::toObjectSchema);
                 setSchema(new ArraySchema().items(schema)._default(defV));
             } else if (isObjectType()) {
                 setSchema(toObjectSchema()._default("{}".equals(defV) ? null : defV));
-            } else if (isMapType()) {
-                final String paramType = getLastParamType();
-                final Schema schema = Optional.ofNullable(toPrimitiveSchemaOrNull(paramType))
+            } else if (type.isMapType()) {
+                final Schema schema = Optional.ofNullable(toPrimitiveSchemaOrNull(type.getLastParam()))
                         .orElseGet(this::toObjectSchema);
                 setSchema(new MapSchema().additionalProperties(schema)._default(defV));
             } else {
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.Children;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 按 domain 记录文档目录的 hash，每个目录节点的 hash 由自身信息和子节点的 hash 计算得到.
+ * <p>
+ * 变化检测以 domain 为单位：与上一次生成时保存的 hash 对比，domain 下任一文档的目录信息变化都会重新生成整个 domain；
+ * 同一 domain 中未变化的文档由条件请求（304）和 {@link ParseCache} 避免重复下载和解析.
+ */
+@Slf4j
+public class DocTree {
+
+    /**
+     * 上一次全量生成的时间.
+     */
+    private long createdAt = System.currentTimeMillis();
+
+    /**
+     * domain key -> hash.
+     */
+    private Map<String, String> hashes = Maps.newTreeMap();
+
+    static String hash(Children node) {
+        final Hasher hasher = Hashing.sha256().newHasher()
+                .putString(StringUtils.defaultString(node.getPath()), StandardCharsets.UTF_8)
+                .putString(StringUtils.defaultString(node.getTitle()), StandardCharsets.UTF_8)
+                .putString(StringUtils.defaultString(node.getNodeId()), StandardCharsets.UTF_8)
+                .putString(StringUtils.defaultString(node.getKeywords()), StandardCharsets.UTF_8)
+                .putString(StringUtils.defaultString(node.getBrief()), StandardCharsets.UTF_8)
+                .putInt(node.getType())
+                .putInt(node.getEditorType())
+                .putInt(node.getOnline())
+                .putInt(node.getPositionOrder());
+
+        if (CollectionUtils.isNotEmpty(node.getChildren())) {
+            for (final Children child : node.getChildren()) {
+                hasher.putString(hash(child), StandardCharsets.UTF_8);
+            }
+        }
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * 将多个子树（及其他影响生成结果的内容）合并为一个节点，例如某个 domain 下的所有 OpenAPI 文档.
+     */
+    public void put(String key, Collection<Children> nodes, byte[] extra) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        for (final Children node : nodes) {
+            hasher.putString(hash(node), StandardCharsets.UTF_8);
+        }
+        hasher.putBytes(extra);
+
+        hashes.put(key, hasher.hash().toString());
+    }
+
+    /**
+     * 与上一次的 tree 相比，该节点是否有变化（新增的节点也视为变化）.
+     */
+    public boolean isChanged(DocTree previous, String key) {
+        if (previous == null) {
+            return true;
+        }
+
+        final String hash = hashes.get(key);
+        return hash == null || !hash.equals(previous.hashes.get(key));
+    }
+
+    /**
+     * 增量生成时沿用上一次全量生成的时间，保证 tree 会定期过期、全量生成一次.
+     */
+    public void inherit(DocTree previous) {
+        if (previous != null) {
+            this.createdAt = previous.createdAt;
+        }
+    }
+
+    /**
+     * 生成失败的 domain 不保存，下次会被当作变化重新生成.
+     */
+    public void remove(Collection<String> keys) {
+        keys.forEach(hashes::remove);
+    }
+
+    /**
+     * 读取上一次保存的 tree，不存在、已过期或无法解析时返回 null.
+     */
+    public static DocTree load(File file, long maxAgeMillis) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            final DocTree docTree = Misc.GSON.fromJson(FileUtils.readFileToString(file, StandardCharsets.UTF_8), DocTree.class);
+            if (docTree == null || docTree.hashes == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - docTree.createdAt > maxAgeMillis) {
+                log.info("doc tree {} expired, regenerate all.", file);
+                return null;
+            }
+            return docTree;
+        } catch (IOException | RuntimeException e) {
+            log.warn("read doc tree {} failed, regenerate all.", file, e);
+            return null;
+        }
+    }
+
+    public void save(File file) {
+        try {
+            FileUtils.write(file, Misc.GSON.toJson(this), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("save doc tree {} failed.", file, e);
+        }
+    }
+
+}
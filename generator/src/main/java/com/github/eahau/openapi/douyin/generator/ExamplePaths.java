@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.google.common.collect.Sets;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.spi.json.GsonJsonProvider;
+import com.jayway.jsonpath.spi.json.JsonSmartJsonProvider;
+import com.jayway.jsonpath.spi.mapper.GsonMappingProvider;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 响应样例中存在的字段路径，如 data.list[0].id.
+ * <p>
+ * 样例只解析一次并展开为路径集合，判断字段是否存在时不再逐个编译 JsonPath；
+ * 集合之外的写法（如以 . 开头的深度扫描）仍交给 JsonPath，结果与之一致.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class ExamplePaths {
+
+    /**
+     * 由字段名（可带 [0]）以 . 连接的路径.
+     */
+    static final Pattern NORMALIZED_PATH = Pattern.compile("[\\w-]+(\\[0])?(\\.[\\w-]+(\\[0])?)*");
+
+    /**
+     * 路径中的一级字段名.
+     */
+    static final Pattern NAME = Pattern.compile("[\\w-]+");
+
+    static final Configuration GSON_CONFIGURATION = Configuration.builder()
+            .jsonProvider(new GsonJsonProvider(Misc.GSON))
+            .mappingProvider(new GsonMappingProvider(Misc.GSON))
+            .options(Option.SUPPRESS_EXCEPTIONS)
+            .build();
+
+    static final Configuration JSON_SMART_CONFIGURATION = Configuration.builder()
+            .jsonProvider(new JsonSmartJsonProvider())
+            .options(Option.SUPPRESS_EXCEPTIONS)
+            .build();
+
+    /**
+     * gson 无法解析时为 null，全部交给 json-smart.
+     */
+    private final Set<String> paths;
+
+    private final DocumentContext documentContext;
+
+    static ExamplePaths of(String json) {
+        if (StringUtils.isEmpty(json)) {
+            // gson 视为 null，JsonPath 则抛出 IllegalArgumentException，保持一致
+            return new ExamplePaths(null, JsonPath.using(JSON_SMART_CONFIGURATION).parse(json));
+        }
+
+        final JsonElement element;
+        try {
+            element = JsonParser.parseString(json);
+        } catch (JsonParseException ignored) {
+            return new ExamplePaths(null, JsonPath.using(JSON_SMART_CONFIGURATION).parse(json));
+        }
+
+        final Set<String> paths = Sets.newHashSet();
+        collect(element, "", paths);
+
+        return new ExamplePaths(paths, JsonPath.using(GSON_CONFIGURATION).parse(element));
+    }
+
+    /**
+     * 与 gson 下 JsonPath 的读取一致：值为 null 或空数组的字段也视为存在，数组只取第一个元素.
+     * <p>
+     * 含有 . 或 [ 等字符的 key 无法用 {@link #NORMALIZED_PATH} 表示（JsonPath 会将 a.b 视为两级），不加入集合.
+     */
+    private static void collect(JsonElement element, String prefix, Set<String> paths) {
+        if (element instanceof JsonObject) {
+            for (final Map.Entry<String, JsonElement> entry : ((JsonObject) element).entrySet()) {
+                if (!NAME.matcher(entry.getKey()).matches()) {
+                    continue;
+                }
+                final String path = prefix + entry.getKey();
+                paths.add(path);
+                collect(entry.getValue(), path + ".", paths);
+                collectFirst(entry.getValue(), path, paths);
+            }
+        }
+    }
+
+    private static void collectFirst(JsonElement element, String path, Set<String> paths) {
+        if (element instanceof JsonArray && ((JsonArray) element).size() > 0) {
+            final JsonElement first = ((JsonArray) element).get(0);
+            final String firstPath = path + "[0]";
+            paths.add(firstPath);
+            collect(first, firstPath + ".", paths);
+            collectFirst(first, firstPath, paths);
+        }
+    }
+
+    boolean contains(String path) {
+        if (paths != null && NORMALIZED_PATH.matcher(path).matches()) {
+            return paths.contains(path);
+        }
+
+        final Object value = documentContext.read(path);
+        if (value instanceof List) {
+            return !((List<?>) value).isEmpty();
+        }
+        return value != null;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.google.common.collect.Maps;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 文档中的字段类型，如 []int64、list&lt;struct&gt;、map&lt;string,[]Foo&gt;、Json Object.
+ * <p>
+ * 容器（[]、list、array、map）以 []&lt;&gt;(), 分隔参数类型，最后一个参数类型决定元素的类型.
+ * 每种类型字符串只解析一次，按原始字符串缓存.
+ */
+@Getter
+final class FieldType {
+
+    enum Primitive {
+        BOOL, STRING, INT32, INT64, NUMBER
+    }
+
+    static final ConcurrentMap<String, FieldType> CACHE = Maps.newConcurrentMap();
+
+    static FieldType of(String type) {
+        return CACHE.computeIfAbsent(type, FieldType::new);
+    }
+
+    private final String raw;
+
+    private final boolean arrayType;
+
+    private final boolean mapType;
+
+    /**
+     * object、struct 等明确的对象类型，不含未知类型.
+     */
+    private final boolean objectType;
+
+    /**
+     * 最后一个非 list、array 的参数类型，没有时为 object.
+     */
+    private final String lastParamType;
+
+    /**
+     * 不是基本类型时为 null.
+     */
+    private final Primitive primitive;
+
+    private FieldType(String raw) {
+        this.raw = raw;
+        this.arrayType = StringUtils.containsAnyIgnoreCase(raw, "[]", "list", "array");
+        this.mapType = StringUtils.startsWithIgnoreCase(raw, "map");
+        this.objectType = StringUtils.equalsAny(raw, "object", "struct", "strcut", "Json Object");
+        this.lastParamType = parseLastParamType(raw);
+        this.primitive = parsePrimitive(raw);
+    }
+
+    FieldType getLastParam() {
+        return of(lastParamType);
+    }
+
+    static String parseLastParamType(String type) {
+        final StringTokenizer tokenizer = new StringTokenizer(type, "[]<>(),");
+
+        String paramType = "object";
+        while (tokenizer.hasMoreTokens()) {
+            final String token = tokenizer.nextToken();
+            if (!StringUtils.equalsAnyIgnoreCase(token, "list", "array")) {
+                paramType = token;
+            }
+        }
+
+        return paramType;
+    }
+
+    /**
+     * 按顺序匹配，如 int64 先匹配到 int.
+     */
+    static Primitive parsePrimitive(String type) {
+        if (type.contains("bool")) {
+            return Primitive.BOOL;
+        }
+        if (StringUtils.equalsAnyIgnoreCase(type, "sting", "string")) {
+            return Primitive.STRING;
+        }
+        if (StringUtils.containsAny(type, "int", "i32")) {
+            return Primitive.INT32;
+        }
+        if (StringUtils.containsAny(type, "i64", "int64", "long")) {
+            return Primitive.INT64;
+        }
+        if (StringUtils.containsAny(type, "float", "double", "number")) {
+            return Primitive.NUMBER;
+        }
+        return null;
+    }
+
+}
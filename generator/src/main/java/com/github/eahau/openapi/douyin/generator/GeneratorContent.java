@@ -18,10 +18,6 @@ package com.github.eahau.openapi.douyin.generator;
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.Maps;
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.DocumentContext;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.spi.json.JsonSmartJsonProvider;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
@@ -55,7 +51,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -167,30 +162,7 @@ public class GeneratorContent {
 
         if (isRespFieldNeedRebuild()) {
 
-            final Function<String, Object> pathReader = new Function<String, Object>() {
-
-                final Supplier<DocumentContext> documentContext = Suppliers.memoize(() -> {
-                    try {
-                        return JsonPath.parse(getResponseJson());
-                    } catch (RuntimeException ignored) {
-                        return JsonPath
-                                .using(Configuration.defaultConfiguration().jsonProvider(new JsonSmartJsonProvider()))
-                                .parse(getResponseJson());
-                    }
-                });
-
-                @Override
-                public Object apply(final String path) {
-                    final Object value = documentContext.get().read(path);
-                    if (value instanceof List) {
-                        if (((List<?>) value).isEmpty()) {
-                            return null;
-                        }
-                    }
-
-                    return value;
-                }
-            };
+            final Supplier<ExamplePaths> examplePaths = Suppliers.memoize(() -> ExamplePaths.of(getResponseJson()));
 
             final boolean hasOtherStructField = respFields.stream()
                     .filter(it -> !StringUtils.equalsAny(it.getName(), "extra", "data"))
@@ -203,30 +175,24 @@ public class GeneratorContent {
                 final DocField docField = iterator.next();
                 final String name = docField.getName();
                 if (docField.isArrayOrObject()) {
-                    Object value;
-                    if (!hasOtherStructField || (value = pathReader.apply(name)) != null) {
+                    if (!hasOtherStructField || examplePaths.get().contains(name)) {
                         lastStructDocField = docField;
                     } else {
 
-                        lastStructDocField.getChildren().add(docField);
+                        lastStructDocField.addChild(docField);
                         docField.setParent(lastStructDocField);
 
-                        String fullName = docField.getFullName();
-                        value = pathReader.apply(fullName);
-                        if (value != null) {
+                        if (examplePaths.get().contains(docField.getFullName())) {
                             lastStructDocField = docField.isArrayOrObject() ? docField : docField.getParent();
                         }
                     }
                 } else {
                     if (hasOtherStructField && docField.getParent() == null) {
                         docField.setParent(lastStructDocField);
-                        String fullName = docField.getFullName();
-                        Object value = pathReader.apply(fullName);
 
                         // 文档 有的缺字段，和返回的 json 不一致
-                        if (value == null) {
-                            value = pathReader.apply(String.join(".", lastStructDocField.getParentName(), name));
-                            if (value != null) {
+                        if (!examplePaths.get().contains(docField.getFullName())) {
+                            if (examplePaths.get().contains(String.join(".", lastStructDocField.getParentName(), name))) {
                                 lastStructDocField = lastStructDocField.getParent();
                             }
                             docField.setParent(lastStructDocField);
@@ -234,7 +200,7 @@ public class GeneratorContent {
                     }
 
                     if (lastStructDocField != null) {
-                        lastStructDocField.getChildren().add(docField);
+                        lastStructDocField.addChild(docField);
                     }
 
                 }
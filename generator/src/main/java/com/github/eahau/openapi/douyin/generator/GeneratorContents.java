@@ -15,6 +15,8 @@
  */
 package com.github.eahau.openapi.douyin.generator;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.eahau.openapi.douyin.generator.GeneratorMetrics.DocMetrics;
 import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.Children;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -26,6 +28,7 @@ import io.swagger.v3.oas.models.PathItem;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.servers.Server;
 import io.swagger.v3.oas.models.tags.Tag;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.SneakyThrows;
@@ -35,14 +38,29 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Getter
 @Builder
-public class GeneratorContents extends LinkedList<GeneratorContent> {
+public class GeneratorContents {
+
+    /**
+     * 是否合并结构相同的 component schema，见 {@link SchemaDeduplicator}.
+     * <p>
+     * 合并会重命名或删除已发布 SDK 中的模型类，因此默认关闭.
+     */
+    static final boolean DEDUPLICATE_SCHEMAS = Boolean.getBoolean("douyin.generator.deduplicateSchemas");
+
+    /**
+     * 是否额外按 tag 拆分输出，见 {@link TagShards}.
+     */
+    static final boolean SPLIT_BY_TAG = Boolean.getBoolean("douyin.generator.output.splitByTag");
 
     private final String title;
 
@@ -50,6 +68,14 @@ public class GeneratorContents extends LinkedList<GeneratorContent> {
 
     final OpenAPI openAPI = new OpenAPI().components(new Components().schemas(Maps.newLinkedHashMap()));
 
+    final GeneratorMetrics metrics = new GeneratorMetrics();
+
+    /**
+     * 解析线程并发写入，按文档的提交顺序读取.
+     */
+    @Getter(AccessLevel.NONE)
+    final OrderedCollector<GeneratorContent> contents = new OrderedCollector<>();
+
     private final List<Tag> tags = Lists.newLinkedList();
 
     public void addTag(Children children) {
@@ -65,12 +91,31 @@ public class GeneratorContents extends LinkedList<GeneratorContent> {
         tags.add(tag);
     }
 
-    @SneakyThrows
+    /**
+     * 可在多个线程中同时调用.
+     *
+     * @param order 文档的提交顺序
+     */
+    public void add(int order, GeneratorContent content) {
+        contents.add(order, content);
+    }
+
     public void generateOpenApi() {
+        writeOpenApi(buildOpenApi());
+    }
+
+    /**
+     * 组装所有文档的 path 和 schema，并合并人工维护的 openapi-manual.json.
+     * <p>
+     * 每个接口的 schema 先写入各自的 components，在 fork-join 线程池中并行构建，
+     * 再按 path 顺序合并：同名 schema 以 path 靠后的为准，位置保持第一次出现的位置.
+     */
+    public OpenAPI buildOpenApi() {
 
         final OpenAPI openAPI = this.openAPI;
 
-        stream()
+        final List<GeneratorContent> contents = this.contents.toList()
+                .stream()
                 .filter(GeneratorContent::accept)
                 // 根据 path 排序，避免每次构建后 openapi.json 因为顺序改变而产生 change
                 .sorted(Comparator.comparing(GeneratorContent::getPath))
@@ -79,17 +124,24 @@ public class GeneratorContents extends LinkedList<GeneratorContent> {
                         .findFirst()
                         .map(Tag::getName)
                         .ifPresent(it::setTag))
-                .forEach(it -> {
-                    final PathItem pathItem = it.toPathItem();
-                    if (pathItem != null) {
-                        openAPI.path(it.getPath(), pathItem);
-
-                        final Components components = it.getComponents();
-                        if (components.getSchemas() != null) {
-                            components.getSchemas().forEach(openAPI.getComponents()::addSchemas);
-                        }
-                    }
-                });
+                .collect(Collectors.toList());
+
+        final List<PathItem> pathItems = contents.parallelStream()
+                .map(this::toPathItem)
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < contents.size(); i++) {
+            final GeneratorContent content = contents.get(i);
+            final PathItem pathItem = pathItems.get(i);
+            if (pathItem != null) {
+                openAPI.path(content.getPath(), pathItem);
+
+                final Components components = content.getComponents();
+                if (components.getSchemas() != null) {
+                    components.getSchemas().forEach(openAPI.getComponents()::addSchemas);
+                }
+            }
+        }
 
         final String docPath = getDocPath();
 
@@ -106,20 +158,60 @@ public class GeneratorContents extends LinkedList<GeneratorContent> {
                 .tags(getTags())
                 .addServersItem(new Server().url(Misc.API_BASE_URL));
 
-        final String domain = Arrays.stream(docPath.split("/"))
-                .filter(StringUtils::isNotBlank)
-                .filter(it -> !it.equals(Misc.DOC_LANGUAGE))
-                .findFirst()
-                .get();
+        final String domain = getDomain();
+
+        final Set<String> manualSchemas = mergeOpenApi(domain, openAPI);
+
+        if (DEDUPLICATE_SCHEMAS) {
+            SchemaDeduplicator.deduplicate(openAPI, manualSchemas);
+        }
+
+        return openAPI;
+    }
+
+    @SneakyThrows
+    public void writeOpenApi(OpenAPI openAPI) {
+
+        final String domain = getDomain();
 
-        mergeOpenApi(domain, openAPI);
+        // 先拆分并检查引用，失败时不写入任何文件
+        final Map<String, JsonNode> shards = SPLIT_BY_TAG ? TagShards.split(openAPI) : Collections.emptyMap();
 
-        final String filename = "openapi.json";
+        OpenApiWriter.write(openAPI, newFile(domain, "openapi.json"));
 
-        final String openApiContent = Json.pretty(openAPI);
+        if (SPLIT_BY_TAG) {
+            for (final Map.Entry<String, JsonNode> entry : shards.entrySet()) {
+                OpenApiWriter.write(entry.getValue(), newFile(domain, entry.getKey()));
+            }
+            TagShards.deleteStale(newFile(domain, "openapi.json").getParentFile(), shards.keySet());
+        }
 
-        FileUtils.write(newFile(domain, filename), openApiContent, StandardCharsets.UTF_8);
+    }
+
+    private PathItem toPathItem(GeneratorContent content) {
+        final DocMetrics docMetrics = metrics.of(content.getDocPath());
+        final long start = System.nanoTime();
+        try {
+            return content.toPathItem();
+        } catch (RuntimeException e) {
+            docMetrics.failed("build", e);
+            throw e;
+        } finally {
+            docMetrics.setBuildNanos(System.nanoTime() - start);
+        }
+    }
 
+    public void writeMetrics() {
+        final String domain = getDomain();
+        metrics.write(domain, newFile(domain, "openapi-metrics.json"));
+    }
+
+    public String getDomain() {
+        return Arrays.stream(getDocPath().split("/"))
+                .filter(StringUtils::isNotBlank)
+                .filter(it -> !it.equals(Misc.DOC_LANGUAGE))
+                .findFirst()
+                .get();
     }
 
     File newFile(String domain, String filename) {
@@ -137,9 +229,11 @@ public class GeneratorContents extends LinkedList<GeneratorContent> {
 
     /**
      * 合并自动生成的和人工维护的 openapi.json, 以人工维护的为准.
+     *
+     * @return 人工维护的 schema 名称
      */
     @SneakyThrows
-    void mergeOpenApi(String domain, OpenAPI openAPI) {
+    Set<String> mergeOpenApi(String domain, OpenAPI openAPI) {
 
         final String filename = "openapi-manual.json";
 
@@ -153,10 +247,12 @@ public class GeneratorContents extends LinkedList<GeneratorContent> {
                 .ifPresent(it -> it.forEach(openAPI.getPaths()::addPathItem));
 
         // merge schema
-        Optional.ofNullable(openApiManual)
+        final Optional<Components> manualComponents = Optional.ofNullable(openApiManual)
                 .map(OpenAPI::getComponents)
-                .map(Components::getSchemas)
-                .ifPresent(it -> it.forEach(openAPI.getComponents()::addSchemas));
+                .filter(it -> it.getSchemas() != null);
+        manualComponents.ifPresent(it -> it.getSchemas().forEach(openAPI.getComponents()::addSchemas));
+
+        return manualComponents.map(it -> it.getSchemas().keySet()).orElse(Collections.emptySet());
 
     }
 
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 一个 domain 下每篇文档各阶段的耗时、响应大小及失败原因，生成时按 domain 和文档类型汇总为百分位数.
+ */
+@Slf4j
+public class GeneratorMetrics {
+
+    static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+
+    @Getter
+    @Setter
+    public static class DocMetrics {
+
+        private final String docPath;
+
+        /**
+         * 1=json, 2=html, 0=未知（如抓取失败）.
+         */
+        private int type;
+
+        private long responseBytes;
+
+        private long fetchNanos;
+
+        /**
+         * 仅 json 文档，{@code JsonDocParser#toMarkdown} 的耗时.
+         */
+        private long toMarkdownNanos;
+
+        /**
+         * {@code HtmlParser#parse} 的耗时.
+         */
+        private long parseNanos;
+
+        /**
+         * {@link GeneratorContent#toPathItem()} 的耗时.
+         */
+        private long buildNanos;
+
+        private String failure;
+
+        DocMetrics(String docPath) {
+            this.docPath = docPath;
+        }
+
+        public void failed(String stage, Throwable e) {
+            this.failure = stage + ": " + e;
+        }
+
+        String docType() {
+            switch (type) {
+                case 1:
+                    return "json";
+                case 2:
+                    return "html";
+                default:
+                    return "unknown";
+            }
+        }
+    }
+
+    /**
+     * 开启后在 {@link #sampleHeap} 处先 gc 再记录堆的使用量，用于对比解析结果的内存占用.
+     */
+    static final boolean HEAP_SAMPLING = Boolean.getBoolean("douyin.generator.heapMetrics");
+
+    private final ConcurrentMap<String, DocMetrics> docs = Maps.newConcurrentMap();
+
+    private final Map<String, Long> heapUsedBytes = Collections.synchronizedMap(Maps.newLinkedHashMap());
+
+    public DocMetrics of(String docPath) {
+        return docs.computeIfAbsent(docPath, DocMetrics::new);
+    }
+
+    /**
+     * 记录某个阶段结束时堆的使用量，多个 domain 同时生成时包含其他 domain 的占用.
+     */
+    public void sampleHeap(String stage) {
+        if (HEAP_SAMPLING) {
+            System.gc();
+            heapUsedBytes.put(stage, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        }
+    }
+
+    /**
+     * 写入 json 报告，失败只记录日志，不影响生成.
+     */
+    public void write(String domain, File file) {
+        final List<DocMetrics> docs = this.docs.values()
+                .stream()
+                .sorted(Comparator.comparing(DocMetrics::getDocPath))
+                .collect(Collectors.toList());
+
+        final Map<String, Object> report = Maps.newLinkedHashMap();
+        report.put("domain", domain);
+        report.put("summary", summarize(docs));
+        if (!heapUsedBytes.isEmpty()) {
+            report.put("heapUsedBytes", Maps.newLinkedHashMap(heapUsedBytes));
+        }
+        report.put("byDocType", docs.stream()
+                .collect(Collectors.groupingBy(DocMetrics::docType, Maps::newTreeMap, Collectors.toList()))
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, it -> summarize(it.getValue()), (a, b) -> a, Maps::newLinkedHashMap)));
+        report.put("failures", docs.stream()
+                .filter(it -> it.getFailure() != null)
+                .collect(Collectors.toMap(DocMetrics::getDocPath, DocMetrics::getFailure, (a, b) -> a, Maps::newLinkedHashMap)));
+        report.put("docs", docs.stream().map(GeneratorMetrics::toMap).collect(Collectors.toList()));
+
+        try {
+            FileUtils.write(file, GSON.toJson(report), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("write metrics {} failed.", file, e);
+        }
+    }
+
+    static Map<String, Object> summarize(Collection<DocMetrics> docs) {
+        final Map<String, Object> summary = Maps.newLinkedHashMap();
+        summary.put("count", docs.size());
+        summary.put("failed", docs.stream().filter(it -> it.getFailure() != null).count());
+        summary.put("responseBytes", percentiles(docs, DocMetrics::getResponseBytes, it -> it));
+        summary.put("fetchMillis", percentiles(docs, DocMetrics::getFetchNanos, GeneratorMetrics::toMillis));
+        summary.put("toMarkdownMillis", percentiles(docs, DocMetrics::getToMarkdownNanos, GeneratorMetrics::toMillis));
+        summary.put("parseMillis", percentiles(docs, DocMetrics::getParseNanos, GeneratorMetrics::toMillis));
+        summary.put("buildMillis", percentiles(docs, DocMetrics::getBuildNanos, GeneratorMetrics::toMillis));
+        return summary;
+    }
+
+    /**
+     * 未经过该阶段（值为 0）的文档不参与统计.
+     */
+    static Map<String, Object> percentiles(Collection<DocMetrics> docs, ToLongFunction<DocMetrics> getter, Function<Long, Object> format) {
+        final long[] values = docs.stream().mapToLong(getter).filter(it -> it > 0).sorted().toArray();
+
+        final Map<String, Object> map = Maps.newLinkedHashMap();
+        map.put("count", values.length);
+        if (values.length > 0) {
+            map.put("p50", format.apply(percentile(values, 50)));
+            map.put("p90", format.apply(percentile(values, 90)));
+            map.put("p99", format.apply(percentile(values, 99)));
+            map.put("max", format.apply(values[values.length - 1]));
+            map.put("total", format.apply(Arrays.stream(values).sum()));
+        }
+        return map;
+    }
+
+    /**
+     * nearest-rank.
+     */
+    static long percentile(long[] sorted, int percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    static Object toMillis(long nanos) {
+        return Math.round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+
+    static Map<String, Object> toMap(DocMetrics doc) {
+        final Map<String, Object> map = Maps.newLinkedHashMap();
+        map.put("docPath", doc.getDocPath());
+        map.put("docType", doc.docType());
+        map.put("responseBytes", doc.getResponseBytes());
+        map.put("fetchMillis", toMillis(doc.getFetchNanos()));
+        map.put("toMarkdownMillis", toMillis(doc.getToMarkdownNanos()));
+        map.put("parseMillis", toMillis(doc.getParseNanos()));
+        map.put("buildMillis", toMillis(doc.getBuildNanos()));
+        if (doc.getFailure() != null) {
+            map.put("failure", doc.getFailure());
+        }
+        return map;
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.github.eahau.openapi.douyin.generator.GeneratorMetrics.DocMetrics;
+import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.Children;
+import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.DocResponse;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.swagger.v3.oas.models.OpenAPI;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 抓取 -> 解析 -> 组装 -> 写文件 的流水线.
+ * <p>
+ * 每个阶段一个独立的线程池，阶段之间是有界队列，下游处理不过来时上游提交任务会阻塞，
+ * 从而抓取（网络 IO）和解析（CPU）可以并行，又不会无限堆积.
+ */
+@Slf4j
+public class GeneratorPipeline implements AutoCloseable {
+
+    private final ExecutorService fetchExecutor;
+
+    private final ExecutorService parseExecutor;
+
+    private final ExecutorService assembleExecutor;
+
+    private final ExecutorService writeExecutor;
+
+    public GeneratorPipeline(int fetchThreads, int parseThreads, int assembleThreads, int writeThreads, int queueCapacity) {
+        this.fetchExecutor = newStage("fetch-%d", fetchThreads, queueCapacity);
+        this.parseExecutor = newStage("parse-%d", parseThreads, queueCapacity);
+        this.assembleExecutor = newStage("assemble-%d", assembleThreads, queueCapacity);
+        this.writeExecutor = newStage("write-%d", writeThreads, queueCapacity);
+    }
+
+    /**
+     * 固定大小、有界队列的线程池，队列满时提交任务的线程阻塞等待.
+     */
+    static ExecutorService newStage(String nameFormat, int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat(nameFormat).build(),
+                (runnable, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException(nameFormat + " has been shutdown.");
+                    }
+                    try {
+                        executor.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                }
+        );
+    }
+
+    /**
+     * 提交一个 domain 下的所有文档，全部解析完成后组装并写入 openapi.json 及 openapi-metrics.json.
+     *
+     * @param parser 解析失败时返回 null，该文档被忽略
+     * @return 写入完成时完成，任一文档抓取失败或组装、写入失败时异常完成
+     */
+    public CompletableFuture<Void> submit(GeneratorContents generatorContents,
+                                          List<Children> docs,
+                                          Function<Children, DocResponse> fetcher,
+                                          BiFunction<Children, DocResponse, GeneratorContent> parser) {
+
+        final GeneratorMetrics metrics = generatorContents.getMetrics();
+        metrics.sampleHeap("start");
+
+        final List<CompletableFuture<Void>> futures = Lists.newArrayListWithCapacity(docs.size());
+        for (int i = 0; i < docs.size(); i++) {
+            final int order = i;
+            final Children doc = docs.get(i);
+            final DocMetrics docMetrics = metrics.of(doc.docPath());
+            futures.add(
+                    CompletableFuture.supplyAsync(() -> {
+                                final long start = System.nanoTime();
+                                try {
+                                    final DocResponse docResponse = fetcher.apply(doc);
+                                    docMetrics.setType(docResponse.getType());
+                                    docMetrics.setResponseBytes(docResponse.getResponseBytes());
+                                    return docResponse;
+                                } catch (RuntimeException e) {
+                                    docMetrics.failed("fetch", e);
+                                    throw e;
+                                } finally {
+                                    docMetrics.setFetchNanos(System.nanoTime() - start);
+                                }
+                            }, fetchExecutor)
+                            .thenAcceptAsync(docResponse -> {
+                                final GeneratorContent content;
+                                try {
+                                    content = parser.apply(doc, docResponse);
+                                } finally {
+                                    docMetrics.setToMarkdownNanos(docResponse.getToMarkdownNanos());
+                                    docMetrics.setParseNanos(docResponse.getParseNanos());
+                                }
+                                if (content != null) {
+                                    generatorContents.add(order, content);
+                                }
+                            }, parseExecutor)
+            );
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[]{}))
+                .thenApplyAsync(ignored -> {
+                    metrics.sampleHeap("parsed");
+
+                    final OpenAPI openAPI = generatorContents.buildOpenApi();
+                    metrics.sampleHeap("built");
+                    return openAPI;
+                }, assembleExecutor)
+                .thenAcceptAsync(generatorContents::writeOpenApi, writeExecutor)
+                // 无论成功与否都写入统计信息，在完成写入的线程中同步执行，不再向 writeExecutor 的队列提交任务，
+                // 否则写线程可能阻塞在自己的队列上
+                .whenComplete((ignored, throwable) -> generatorContents.writeMetrics());
+    }
+
+    /**
+     * 等待所有阶段的任务执行完毕，被中断时立即停止所有阶段并保留中断状态.
+     */
+    @Override
+    public void close() {
+        final ExecutorService[] executors = {fetchExecutor, parseExecutor, assembleExecutor, writeExecutor};
+        for (final ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+        try {
+            for (final ExecutorService executor : executors) {
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log.warn("waiting for {} to terminate.", executor);
+                }
+            }
+        } catch (InterruptedException e) {
+            for (final ExecutorService executor : executors) {
+                executor.shutdownNow();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
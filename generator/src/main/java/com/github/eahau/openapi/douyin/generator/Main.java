@@ -15,44 +15,158 @@
  */
 package com.github.eahau.openapi.douyin.generator;
 
+import com.github.eahau.openapi.douyin.generator.api.DocResponseDecoder;
 import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi;
 import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.Children;
 import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.Data;
 import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.DocsResponse;
+import com.github.eahau.openapi.douyin.generator.http.CachingClient;
+import com.github.eahau.openapi.douyin.generator.http.CrawlScheduler;
+import com.github.eahau.openapi.douyin.generator.http.SnapshotClient;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import feign.Client;
 import feign.Feign;
 import feign.Logger.Level;
+import feign.Request.Options;
+import feign.Retryer;
 import feign.gson.GsonDecoder;
+import feign.okhttp.OkHttpClient;
 import feign.slf4j.Slf4jLogger;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Protocol;
+import okhttp3.brotli.BrotliInterceptor;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class Main {
 
-    static final DouYinOpenDocApi douYinOpenDocApi = Feign.builder()
-            .logLevel(Level.BASIC)
-            .logger(new Slf4jLogger(DouYinOpenDocApi.class))
-            .decoder(new GsonDecoder(Misc.GSON))
-            .target(DouYinOpenDocApi.class, Misc.DOC_BASE_URL);
+    static final int maxConcurrency = Integer.getInteger("douyin.generator.crawl.maxConcurrency", 16);
 
-    static final ExecutorService executorService = new ThreadPoolExecutor(
-            30, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
-            new CallerRunsPolicy()
+    static final Options options = new Options(
+            Long.getLong("douyin.generator.http.connectTimeoutMillis", 10_000), TimeUnit.MILLISECONDS,
+            Long.getLong("douyin.generator.http.readTimeoutMillis", 60_000), TimeUnit.MILLISECONDS,
+            true
     );
 
+    /**
+     * 连接池复用连接，优先 HTTP/2 多路复用，响应支持 gzip/brotli 压缩.
+     */
+    static okhttp3.OkHttpClient newOkHttpClient() {
+        return new okhttp3.OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(
+                        Integer.getInteger("douyin.generator.http.maxIdleConnections", 5),
+                        Long.getLong("douyin.generator.http.keepAliveMinutes", 5), TimeUnit.MINUTES
+                ))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .addInterceptor(BrotliInterceptor.INSTANCE)
+                // 与 options 保持一致，否则 feign 每次请求都会重新创建 client
+                .connectTimeout(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(options.readTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .followRedirects(options.isFollowRedirects())
+                .build();
+    }
+
+    static final CrawlScheduler crawlScheduler = new CrawlScheduler(
+            new OkHttpClient(newOkHttpClient()),
+            maxConcurrency,
+            Double.parseDouble(System.getProperty("douyin.generator.crawl.permitsPerSecond", "10")),
+            Integer.getInteger("douyin.generator.crawl.maxRetries", 4)
+    );
+
+    /**
+     * 默认每次都发起条件请求重新校验，未变化时只是一次 304，保证全量生成不会使用过期的文档；
+     * 调试时可通过 douyin.generator.cache.maxAgeMinutes 在有效期内直接使用缓存.
+     */
+    static final CachingClient cachingClient = new CachingClient(
+            crawlScheduler,
+            new File(Misc.CACHE_DIR, "docs"),
+            TimeUnit.MINUTES.toMillis(Long.getLong("douyin.generator.cache.maxAgeMinutes", 0))
+    );
+
+    static DouYinOpenDocApi newDouYinOpenDocApi(Client client) {
+        return Feign.builder()
+                .client(client)
+                .retryer(Retryer.NEVER_RETRY)
+                .options(options)
+                .logLevel(Level.BASIC)
+                .logger(new Slf4jLogger(DouYinOpenDocApi.class))
+                .decoder(new DocResponseDecoder(new GsonDecoder(Misc.GSON)))
+                .target(DouYinOpenDocApi.class, Misc.DOC_BASE_URL);
+    }
+
+    static GeneratorPipeline newGeneratorPipeline() {
+        return new GeneratorPipeline(
+                maxConcurrency,
+                Integer.getInteger("douyin.generator.pipeline.parseThreads", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("douyin.generator.pipeline.assembleThreads", 2),
+                Integer.getInteger("douyin.generator.pipeline.writeThreads", 1),
+                Integer.getInteger("douyin.generator.pipeline.queueCapacity", 64)
+        );
+    }
+
+    static final File docTreeFile = new File(Misc.CACHE_DIR, "doc-tree.json");
+
+    /**
+     * 文档内容未变化时直接使用上次的解析结果.
+     */
+    static final ParseCache parseCache = new ParseCache(
+            new File(Misc.CACHE_DIR, "parse"),
+            Boolean.parseBoolean(System.getProperty("douyin.generator.parseCache", "true"))
+    );
+
+    /**
+     * 目录中没有文档正文的更新时间，目录未变化的 domain 会被跳过、正文的修改要等到下一次全量生成才生效，因此默认关闭.
+     */
+    static final boolean incremental = Boolean.getBoolean("douyin.generator.incremental");
+
+    static final File defaultSnapshotFile = new File(Misc.CACHE_DIR, "snapshot.json.gz");
+
+    /**
+     * 超过该时间后不再增量生成，全量生成一次.
+     */
+    static final long docTreeMaxAgeMillis = TimeUnit.HOURS.toMillis(Long.getLong("douyin.generator.incremental.maxAgeHours", 24 * 7));
+
+    /**
+     * 从文档 url 中获取目录节点的 path.
+     */
+    static String docNodePath(String url) {
+        return StringUtils.substringBetween(url, Misc.DOC_BASE_URL + Misc.DOC_URI, "?");
+    }
+
+    /**
+     * 获取 {@code --name=value} 或 {@code --name} 形式的参数，后者返回默认值，不存在时返回 null.
+     */
+    static File fileOption(String[] args, String name, File defaultValue) {
+        for (final String arg : args) {
+            if (arg.equals("--" + name)) {
+                return defaultValue;
+            }
+            if (arg.startsWith("--" + name + "=")) {
+                return new File(arg.substring(name.length() + 3));
+            }
+        }
+
+        return null;
+    }
+
     @SneakyThrows
     public static void main(String[] args) {
 
@@ -60,81 +174,147 @@ public class Main {
 
         final Stopwatch stopwatch = Stopwatch.createStarted();
 
+        // --record 录制所有文档响应到快照文件，--replay 只从快照文件读取，不访问网络
+        final File recordFile = fileOption(args, "record", defaultSnapshotFile);
+        final File replayFile = fileOption(args, "replay", defaultSnapshotFile);
+
+        final SnapshotClient snapshotClient;
+        if (replayFile != null) {
+            snapshotClient = SnapshotClient.replay(replayFile);
+        } else if (recordFile != null) {
+            snapshotClient = SnapshotClient.record(cachingClient);
+        } else {
+            snapshotClient = null;
+        }
+
+        final DouYinOpenDocApi douYinOpenDocApi = newDouYinOpenDocApi(snapshotClient != null ? snapshotClient : cachingClient);
+
+        // 目录用于判断文档是否有变化，每次都需要重新校验
+        cachingClient.setMaxAgeOverride(url -> url.startsWith(Misc.DOC_BASE_URL + "/docs_v2/directory") ? 0 : -1);
+
         final DocsResponse docsResponse = douYinOpenDocApi.allDocs();
         final List<Data> data = docsResponse.getData();
 
-        for (final Data datum : data) {
-
-            final AtomicReference<GeneratorContents> contents = new AtomicReference<>();
-
-            final List<CompletableFuture<Void>> futures = Lists.newArrayList();
-
-            datum.getChildren()
-                    .stream()
-                    .filter(it -> it.getTitle().contains("开发"))
-                    .map(Children::getChildren)
-                    .flatMap(Collection::stream)
-                    .filter(it -> it.getTitle().contains("OpenAPI"))
-                    .map(Children::getChildren)
-                    .flatMap(Collection::stream)
-                    .forEach(children -> {
-                        if (contents.get() == null) {
-                            contents.set(
-                                    GeneratorContents.builder()
-                                            .title(children.getTitle())
-                                            .docPath(children.getPath())
-                                            .build()
-                            );
-                        }
+        // 录制和回放都需要完整生成
+        final boolean incremental = Main.incremental && snapshotClient == null;
 
-                        final List<Children> allChildren = children.flatChildren();
-                        if (CollectionUtils.isEmpty(allChildren)) {
-                            return;
-                        }
+        final DocTree previousDocTree = incremental ? DocTree.load(docTreeFile, docTreeMaxAgeMillis) : null;
+        final DocTree docTree = new DocTree();
+        docTree.inherit(previousDocTree);
 
-                        final GeneratorContents generatorContents = contents.get();
-                        generatorContents.addTag(children);
+        if (previousDocTree != null) {
+            // 目录未变化不代表正文未变化，需要生成的文档都重新校验，未变化时只是一次 304
+            cachingClient.setMaxAgeOverride(url -> docNodePath(url) == null ? -1 : 0);
+        }
 
-                        for (final Children child : allChildren) {
+        final Set<String> failedKeys = Sets.newConcurrentHashSet();
 
-                            final String path = child.docPath();
-                            final CompletableFuture<Void> future = CompletableFuture
-                                    .supplyAsync(() -> douYinOpenDocApi.docs(path), executorService)
-                                    .thenAccept(docResponse -> {
-                                        docResponse.setPath(path);
-                                        try {
-                                            final GeneratorContent content = docResponse.toGeneratorContext();
-                                            content.setComponents(generatorContents.getOpenAPI().getComponents());
-
-                                            generatorContents.add(content);
-                                        } catch (Exception e) {
-                                            log.error("parse `{}` doc failed.", path, e);
-                                        }
-                                    });
-
-                            futures.add(future);
-                        }
-                    });
+        final Map<String, CompletableFuture<Void>> domainFutures = Maps.newLinkedHashMap();
+
+        try (GeneratorPipeline pipeline = newGeneratorPipeline()) {
+
+            for (final Data datum : data) {
+
+                final List<Children> sections = datum.getChildren()
+                        .stream()
+                        .filter(it -> it.getTitle().contains("开发"))
+                        .map(Children::getChildren)
+                        .flatMap(Collection::stream)
+                        .filter(it -> it.getTitle().contains("OpenAPI"))
+                        .map(Children::getChildren)
+                        .flatMap(Collection::stream)
+                        .collect(Collectors.toList());
+
+                if (sections.isEmpty()) {
+                    continue;
+                }
+
+                final Children first = sections.get(0);
+                final GeneratorContents generatorContents = GeneratorContents.builder()
+                        .title(first.getTitle())
+                        .docPath(first.getPath())
+                        .build();
+
+                final String domain = generatorContents.getDomain();
+                final String domainKey = "domain:" + domain;
+
+                // 人工维护的 openapi-manual.json 也会影响生成结果
+                final File manualFile = generatorContents.newFile(domain, "openapi-manual.json");
+                docTree.put(domainKey, sections, manualFile.isFile() ? Files.toByteArray(manualFile) : new byte[0]);
+
+                if (!docTree.isChanged(previousDocTree, domainKey) && generatorContents.newFile(domain, "openapi.json").isFile()) {
+                    log.info("`{}` docs unchanged, skipped.", domain);
+                    continue;
+                }
 
-            if (!futures.isEmpty()) {
-                CompletableFuture.allOf(futures.toArray(new CompletableFuture[]{}))
-                        .thenAccept(ignored -> {
+                final List<Children> docs = Lists.newArrayList();
+
+                for (final Children children : sections) {
+
+                    final List<Children> allChildren = children.flatChildren();
+                    if (CollectionUtils.isEmpty(allChildren)) {
+                        continue;
+                    }
+
+                    generatorContents.addTag(children);
+
+                    docs.addAll(allChildren);
+                }
+
+                if (docs.isEmpty()) {
+                    continue;
+                }
+
+                final CompletableFuture<Void> future = pipeline.submit(
+                        generatorContents,
+                        docs,
+                        child -> douYinOpenDocApi.docs(child.docPath()),
+                        (child, docResponse) -> {
+                            final String path = child.docPath();
+                            docResponse.setPath(path);
                             try {
-                                final GeneratorContents generatorContents = contents.get();
-                                generatorContents.generateOpenApi();
-                            } catch (Throwable e) {
-                                log.error("generateOpenApi failed.", e);
+                                return parseCache.get(docResponse, docResponse::toGeneratorContext);
+                            } catch (Exception e) {
+                                // 移除 domain 的 hash，下次重新生成整个 domain
+                                failedKeys.add(domainKey);
+                                generatorContents.getMetrics().of(path).failed("parse", e);
+                                log.error("parse `{}` doc failed.", path, e);
+                                return null;
                             }
-                        });
+                        }
+                );
+
+                domainFutures.put(domainKey, future);
             }
 
+            // 按提交顺序等待每个 domain 写入完成
+            domainFutures.forEach((domainKey, future) -> {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    failedKeys.add(domainKey);
+                    log.error("generate `{}` failed.", domainKey, e.getCause());
+                }
+            });
         }
 
-        while (!executorService.isTerminated()) {
-            executorService.shutdown();
+        parseCache.report();
+
+        if (replayFile != null) {
+            log.info("Replayed from snapshot {}.", replayFile);
+        } else {
+            if (recordFile != null) {
+                snapshotClient.save(recordFile);
+            }
+
+            docTree.remove(failedKeys);
+            docTree.save(docTreeFile);
+
+            cachingClient.report();
+            crawlScheduler.report();
         }
 
         log.info("Done! Time elapsed {}", stopwatch.stop());
     }
 
-}
\ No newline at end of file
+}
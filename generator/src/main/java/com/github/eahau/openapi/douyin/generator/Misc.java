@@ -30,6 +30,11 @@ public interface Misc {
 
     String DEFAULT_VALUE_KEY = "固定值";
 
+    /**
+     * 生成器的本地缓存目录.
+     */
+    String CACHE_DIR = System.getProperty("user.dir") + "/generator/.cache";
+
     Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
 
 }
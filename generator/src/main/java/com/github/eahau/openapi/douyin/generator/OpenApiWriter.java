@@ -0,0 +1,172 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.Maps;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.apache.commons.io.output.TeeOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 将 {@link OpenAPI} 直接序列化到文件，不在内存中拼出完整的 json 字符串.
+ * <p>
+ * 先写入同目录下的临时文件，全部写完后原子替换目标文件。可选同时生成：
+ * <ul>
+ *     <li>douyin.generator.output.minified=true：去掉缩进的 openapi.min.json，由刚写出的文件流式转换</li>
+ *     <li>douyin.generator.output.gzip=true：每个 json 文件对应的 .gz，与 json 在同一次写入中生成</li>
+ *     <li>douyin.generator.output.parallel=true：使用 {@link ChunkedJsonWriter} 分块并行序列化</li>
+ * </ul>
+ * 所有文件都经由 UTF-8 的 {@link Writer} 写出，与 {@link Json#pretty(Object)} 的结果逐字节相同.
+ */
+final class OpenApiWriter {
+
+    static final boolean MINIFIED = Boolean.getBoolean("douyin.generator.output.minified");
+
+    static final boolean GZIP = Boolean.getBoolean("douyin.generator.output.gzip");
+
+    /**
+     * 使用 {@link ChunkedJsonWriter} 分块并行序列化，默认关闭：
+     * 实测并不比顺序写入快，且写入前需要在内存中保留整个文档的序列化结果.
+     */
+    static final boolean PARALLEL = Boolean.getBoolean("douyin.generator.output.parallel");
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 目标文件 -&gt; 临时文件.
+     */
+    private final Map<Path, Path> files = Maps.newLinkedHashMap();
+
+    private final File directory;
+
+    private OpenApiWriter(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param value {@link OpenAPI} 或其他可序列化为 json 的对象，如 {@link com.fasterxml.jackson.databind.JsonNode}
+     */
+    static void write(Object value, File file) throws IOException {
+        final File directory = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+
+        final OpenApiWriter writer = new OpenApiWriter(directory);
+        try {
+            writer.write(value, file.getName());
+        } finally {
+            writer.deleteTemporaryFiles();
+        }
+    }
+
+    void write(Object value, String filename) throws IOException {
+        try (Writer out = newWriter(open(filename))) {
+            if (PARALLEL && value instanceof OpenAPI) {
+                ChunkedJsonWriter.write((OpenAPI) value, out);
+            } else {
+                Json.pretty().writeValue(out, value);
+            }
+        }
+
+        if (MINIFIED) {
+            final String minifiedName = filename.endsWith(".json")
+                    ? filename.substring(0, filename.length() - ".json".length()) + ".min.json"
+                    : filename + ".min";
+
+            try (InputStream in = Files.newInputStream(files.get(new File(directory, filename).toPath()))) {
+                minify(in, newWriter(open(minifiedName)));
+            }
+        }
+
+        for (final Map.Entry<Path, Path> entry : files.entrySet()) {
+            Files.move(entry.getValue(), entry.getKey(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    static Writer newWriter(OutputStream out) {
+        return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 打开 filename 的临时文件，开启 gzip 时同时写入 filename.gz 的临时文件.
+     */
+    OutputStream open(String filename) throws IOException {
+        final OutputStream out = newTemporaryFile(filename);
+        if (!GZIP) {
+            return out;
+        }
+        return new TeeOutputStream(out, new GZIPOutputStream(newTemporaryFile(filename + ".gz"), BUFFER_SIZE));
+    }
+
+    OutputStream newTemporaryFile(String filename) throws IOException {
+        final Path tmp = File.createTempFile(filename, ".tmp", directory).toPath();
+        files.put(new File(directory, filename).toPath(), tmp);
+
+        final FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+    }
+
+    void deleteTemporaryFiles() throws IOException {
+        for (final Path tmp : files.values()) {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 将缩进的 json 流式转换为不带缩进的 json，写完后关闭 out.
+     */
+    static void minify(InputStream in, Writer out) throws IOException {
+        final JsonFactory factory = Json.mapper().getFactory();
+        try (JsonParser parser = factory.createParser(in);
+             JsonGenerator generator = factory.createGenerator(out)) {
+            copyTokens(parser, generator);
+        }
+    }
+
+    /**
+     * 数字按原文写出，避免解析为 double 后精度或格式发生变化.
+     */
+    static void copyTokens(JsonParser parser, JsonGenerator generator) throws IOException {
+        for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                generator.writeNumber(parser.getText());
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+    }
+
+}
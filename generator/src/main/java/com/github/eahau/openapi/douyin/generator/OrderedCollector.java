@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import lombok.AllArgsConstructor;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * 多个线程同时添加、全部添加完成后一次性读取的收集器.
+ * <p>
+ * 添加时写入无锁队列；读取时按添加时给定的序号排序，结果与线程调度无关。
+ * 读取须发生在所有添加之后，如等待添加所在的 CompletableFuture 完成.
+ */
+final class OrderedCollector<T> {
+
+    @AllArgsConstructor
+    static final class Entry<T> {
+
+        final long order;
+
+        final T value;
+    }
+
+    private final Queue<Entry<T>> entries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param order 排序用的序号，不同元素的序号应不同
+     */
+    void add(long order, T value) {
+        entries.add(new Entry<>(order, value));
+    }
+
+    List<T> toList() {
+        return entries.stream()
+                .sorted(Comparator.comparingLong(it -> it.order))
+                .map(it -> it.value)
+                .collect(Collectors.toList());
+    }
+
+}
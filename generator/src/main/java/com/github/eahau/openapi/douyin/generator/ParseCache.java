@@ -0,0 +1,468 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.github.eahau.openapi.douyin.generator.GeneratorContent.GeneratorContentBuilder;
+import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.DocResponse;
+import com.github.eahau.openapi.douyin.generator.http.CachingClient;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+import io.swagger.v3.oas.models.servers.Server;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 文档解析结果（{@link GeneratorContent} 及其 {@link DocField}）的磁盘缓存，以文档内容的 sha256 为 key.
+ * <p>
+ * 缓存按 {@link #VERSION} 分目录保存，其他版本的目录在启动时删除.
+ */
+@Slf4j
+public class ParseCache {
+
+    /**
+     * 修改了解析逻辑（parser 包、{@link DocField} 的 setter 等）或缓存格式后需要加 1.
+     */
+    static final int VERSION = 2;
+
+    static final int MAGIC = 0x444F4350;
+
+    private static final Class<?> ARRAYS_AS_LIST = Arrays.asList().getClass();
+
+    private final File directory;
+
+    private final boolean enabled;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public ParseCache(File baseDirectory, boolean enabled) {
+        this.directory = new File(baseDirectory, "v" + VERSION);
+        this.enabled = enabled;
+
+        if (enabled) {
+            final File[] stale = baseDirectory.listFiles(it -> it.isDirectory() && !it.equals(directory));
+            for (final File file : stale == null ? new File[0] : stale) {
+                FileUtils.deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * 命中缓存时直接返回，否则调用 parser 解析并写入缓存.
+     */
+    public GeneratorContent get(DocResponse response, Supplier<GeneratorContent> parser) {
+        if (!enabled) {
+            return parser.get();
+        }
+
+        final long start = System.nanoTime();
+        final File file = new File(directory, keyOf(response) + ".bin");
+
+        if (file.isFile()) {
+            try {
+                final GeneratorContent content = decode(FileUtils.readFileToByteArray(file));
+                hits.incrementAndGet();
+                response.setParseNanos(System.nanoTime() - start);
+                return content;
+            } catch (IOException | RuntimeException e) {
+                log.warn("read parse cache {} failed, ignored.", file, e);
+                FileUtils.deleteQuietly(file);
+            }
+        }
+
+        misses.incrementAndGet();
+        final GeneratorContent content = parser.get();
+
+        // 必须在 GeneratorContent 被后续流程修改之前写入
+        final byte[] bytes;
+        try {
+            bytes = encode(content);
+        } catch (UnsupportedOperationException e) {
+            log.debug("{} can't be cached: {}.", response.getPath(), e.getMessage());
+            return content;
+        }
+
+        try {
+            FileUtils.forceMkdir(directory);
+            CachingClient.writeAtomically(file, bytes);
+        } catch (IOException e) {
+            log.warn("write parse cache {} failed, ignored.", file, e);
+        }
+
+        return content;
+    }
+
+    public void report() {
+        if (enabled) {
+            log.info("Parse cache: {} hits, {} misses.", hits.get(), misses.get());
+        }
+    }
+
+    static String keyOf(DocResponse response) {
+        final Hasher hasher = Hashing.sha256().newHasher()
+                .putInt(VERSION)
+                .putInt(response.getType());
+        for (final String value : new String[]{response.getTitle(), response.getPath(), response.getContent()}) {
+            hasher.putBoolean(value != null).putString(String.valueOf(value), StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        return hasher.hash().toString();
+    }
+
+    static byte[] encode(GeneratorContent content) {
+        final Encoder encoder = new Encoder();
+        try {
+            encoder.write(content);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return encoder.bytes.toByteArray();
+    }
+
+    static GeneratorContent decode(byte[] bytes) throws IOException {
+        return new Decoder(bytes).readContent();
+    }
+
+    /**
+     * 字符串、{@link DocField} 及其列表都按引用编码，保持解析结果中共享的 children 等引用关系：
+     * 0=null，1=新对象（随后是内容），n>=2 为第 n-2 个已出现的对象.
+     */
+    static final class Encoder {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        final Map<String, Integer> strings = Maps.newHashMap();
+
+        final Map<Object, Integer> refs = new IdentityHashMap<>();
+
+        void write(GeneratorContent content) throws IOException {
+            if (content.getParams() != null || content.getTag() != null || content.schemaPrefix != null) {
+                throw new UnsupportedOperationException("unexpected params/tag/schemaPrefix");
+            }
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            writeString(content.getTitle());
+            writeString(content.getDesc());
+            writeString(content.getMethod() == null ? null : content.getMethod().name());
+
+            final List<Server> serverList = content.getServerList();
+            writeVarInt(serverList.size());
+            for (final Server server : serverList) {
+                if (server.getVariables() != null || server.getExtensions() != null) {
+                    throw new UnsupportedOperationException("unexpected server variables/extensions");
+                }
+                writeString(server.getUrl());
+                writeString(server.getDescription());
+            }
+
+            writeString(content.getPath());
+            writeString(content.getDocPath());
+            writeString(content.getRequestJson());
+            writeString(content.getResponseJson());
+            writeString(content.getErrorResponseJson());
+
+            writeList(content.getHeadFields());
+            writeList(content.getQueryFields());
+            writeList(content.getBodyFields());
+            writeList(content.getRespFields());
+
+            out.writeBoolean(content.isRespFieldNeedRebuild());
+            out.writeBoolean(content.isCallback());
+        }
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            final Integer id = strings.get(value);
+            if (id != null) {
+                writeVarInt(id + 2);
+                return;
+            }
+            strings.put(value, strings.size());
+
+            final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(1);
+            writeVarInt(utf8.length);
+            out.write(utf8);
+        }
+
+        /**
+         * @return 是否需要继续写入对象内容
+         */
+        boolean writeRef(Object value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+                return false;
+            }
+            final Integer id = refs.get(value);
+            if (id != null) {
+                writeVarInt(id + 2);
+                return false;
+            }
+            refs.put(value, refs.size());
+            writeVarInt(1);
+            return true;
+        }
+
+        void writeList(List<DocField> list) throws IOException {
+            if (!writeRef(list)) {
+                return;
+            }
+
+            // 保持原有的 List 实现，如 Arrays.asList 不支持 add
+            final int kind;
+            if (list == Collections.<DocField>emptyList()) {
+                kind = 0;
+            } else if (list.getClass() == LinkedList.class) {
+                kind = 1;
+            } else if (list.getClass() == ArrayList.class) {
+                kind = 2;
+            } else if (list.getClass() == ARRAYS_AS_LIST) {
+                kind = 3;
+            } else {
+                throw new UnsupportedOperationException("unsupported list " + list.getClass());
+            }
+            out.writeByte(kind);
+
+            writeVarInt(list.size());
+            for (final DocField docField : list) {
+                writeField(docField);
+            }
+        }
+
+        void writeField(DocField docField) throws IOException {
+            if (!writeRef(docField)) {
+                return;
+            }
+            if (docField.getSchema() != null) {
+                throw new UnsupportedOperationException("unexpected schema of " + docField.getName());
+            }
+
+            writeString(docField.getName());
+            writeString(docField.getDeclaredType());
+            out.writeBoolean(docField.isRequired());
+            writeString(docField.getDesc());
+            writeString(docField.getDefV());
+            writeString(docField.getMaxLength());
+            writeString(docField.getExample());
+            writeList(docField.getDeclaredChildren());
+
+            final Map<String, List<DocField>> otherSchemas = docField.getOtherSchemas();
+            if (otherSchemas == null) {
+                out.writeBoolean(false);
+            } else {
+                if (otherSchemas.getClass() != HashMap.class) {
+                    throw new UnsupportedOperationException("unsupported map " + otherSchemas.getClass());
+                }
+                out.writeBoolean(true);
+                writeVarInt(otherSchemas.size());
+                for (final Map.Entry<String, List<DocField>> entry : otherSchemas.entrySet()) {
+                    writeString(entry.getKey());
+                    writeList(entry.getValue());
+                }
+            }
+
+            writeField(docField.getDeclaredParent());
+        }
+    }
+
+    static final class Decoder {
+
+        final DataInputStream in;
+
+        final List<String> strings = Lists.newArrayList();
+
+        final List<Object> refs = Lists.newArrayList();
+
+        Decoder(byte[] bytes) {
+            this.in = new DataInputStream(new ByteArrayInputStream(bytes));
+        }
+
+        GeneratorContent readContent() throws IOException {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("not a parse cache of version " + VERSION);
+            }
+
+            final GeneratorContentBuilder builder = GeneratorContent.builder()
+                    .title(readString())
+                    .desc(readString());
+
+            final String method = readString();
+            if (method != null) {
+                builder.method(HttpMethod.valueOf(method));
+            }
+
+            for (int i = readVarInt(); i > 0; i--) {
+                builder.addServer(new Server().url(readString()).description(readString()));
+            }
+
+            return builder
+                    .path(readString())
+                    .docPath(readString())
+                    .requestJson(readString())
+                    .responseJson(readString())
+                    .errorResponseJson(readString())
+                    .headFields(readList())
+                    .queryFields(readList())
+                    .bodyFields(readList())
+                    .respFields(readList())
+                    .respFieldNeedRebuild(in.readBoolean())
+                    .callback(in.readBoolean())
+                    .build();
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                final byte b = in.readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        String readString() throws IOException {
+            final int tag = readVarInt();
+            if (tag == 0) {
+                return null;
+            }
+            if (tag > 1) {
+                return strings.get(tag - 2);
+            }
+
+            final byte[] utf8 = new byte[readVarInt()];
+            in.readFully(utf8);
+            final String value = new String(utf8, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T readRef(int tag) {
+            return (T) refs.get(tag - 2);
+        }
+
+        List<DocField> readList() throws IOException {
+            final int tag = readVarInt();
+            if (tag != 1) {
+                return tag == 0 ? null : readRef(tag);
+            }
+
+            final int kind = in.readByte();
+            final int size = readVarInt();
+
+            // 先登记再读取元素，元素可能引用该列表
+            final DocField[] array = new DocField[size];
+            final List<DocField> list;
+            switch (kind) {
+                case 0:
+                    list = Collections.emptyList();
+                    break;
+                case 1:
+                    list = Lists.newLinkedList();
+                    break;
+                case 2:
+                    list = Lists.newArrayListWithCapacity(size);
+                    break;
+                case 3:
+                    list = Arrays.asList(array);
+                    break;
+                default:
+                    throw new IOException("unknown list kind " + kind);
+            }
+            refs.add(list);
+
+            for (int i = 0; i < size; i++) {
+                array[i] = readField();
+                if (kind != 3) {
+                    list.add(array[i]);
+                }
+            }
+
+            return list;
+        }
+
+        DocField readField() throws IOException {
+            final int tag = readVarInt();
+            if (tag != 1) {
+                return tag == 0 ? null : readRef(tag);
+            }
+
+            final DocField docField = new DocField();
+            refs.add(docField);
+
+            docField.setName(readString());
+            docField.setType(readString());
+            docField.setRequired(in.readBoolean());
+            docField.setDeclaredDesc(readString());
+            docField.setDefV(readString());
+            docField.setMaxLength(readString());
+            docField.setExample(readString());
+            docField.setChildren(readList());
+
+            if (in.readBoolean()) {
+                final Map<String, List<DocField>> otherSchemas = Maps.newHashMap();
+                for (int i = readVarInt(); i > 0; i--) {
+                    otherSchemas.put(readString(), readList());
+                }
+                docField.setOtherSchemas(otherSchemas);
+            } else {
+                docField.setOtherSchemas(null);
+            }
+
+            docField.setParent(readField());
+
+            return docField;
+        }
+    }
+
+}
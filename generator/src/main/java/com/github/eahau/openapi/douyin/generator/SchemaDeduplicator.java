@@ -0,0 +1,277 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.MapUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 合并结构相同、名称不同的 component schema.
+ * <p>
+ * 两个 schema 序列化后除引用的 schema 名称外完全一致（含描述、示例及属性顺序），且引用的 schema 也两两相同，
+ * 即视为同一结构。按引用关系反复细分直到稳定，每种结构保留在 components 中最先出现的名称，
+ * 其余删除并将所有 $ref 改为保留的名称.
+ * <p>
+ * 人工维护的 schema、extra 及各接口直接引用的 Request、Response 不会被删除.
+ */
+@Slf4j
+final class SchemaDeduplicator {
+
+    static final String REF_PREFIX = Components.COMPONENTS_SCHEMAS_REF;
+
+    private final OpenAPI openAPI;
+
+    private final Components components;
+
+    private final Set<String> pinned;
+
+    private SchemaDeduplicator(OpenAPI openAPI, Collection<String> pinned) {
+        this.openAPI = openAPI;
+        this.components = openAPI.getComponents();
+        this.pinned = Sets.newHashSet(pinned);
+        this.pinned.add("extra");
+    }
+
+    /**
+     * @param pinned 不会被删除的 schema 名称
+     * @return 删除的 schema 数量
+     */
+    static int deduplicate(OpenAPI openAPI, Collection<String> pinned) {
+        if (openAPI.getComponents() == null || MapUtils.isEmpty(openAPI.getComponents().getSchemas())) {
+            return 0;
+        }
+        return new SchemaDeduplicator(openAPI, pinned).deduplicate();
+    }
+
+    int deduplicate() {
+        forEachOperationSchema(schema -> {
+            final String name = refName(schema.get$ref());
+            if (name != null) {
+                pinned.add(name);
+            }
+        });
+
+        final Map<String, String> replacements = replacements(partition());
+        if (replacements.isEmpty()) {
+            return 0;
+        }
+
+        final Consumer<Schema<?>> rewriter = root -> forEachSchema(root, schema -> {
+            final String name = refName(schema.get$ref());
+            final String replacement = name == null ? null : replacements.get(name);
+            if (replacement != null) {
+                schema.set$ref(replacement);
+            }
+        });
+        replacements.keySet().forEach(components.getSchemas()::remove);
+        components.getSchemas().values().forEach(rewriter::accept);
+        forEachOperationSchema(rewriter);
+
+        log.info("Deduplicated {} component schemas, {} left.", replacements.size(), components.getSchemas().size());
+
+        return replacements.size();
+    }
+
+    /**
+     * 按结构划分 schema，返回每个 schema 所属的分组序号，序号按分组中第一个 schema 出现的顺序.
+     */
+    Map<String, Integer> partition() {
+        final Map<String, JsonNode> trees = Maps.newLinkedHashMap();
+        components.getSchemas().forEach((name, schema) -> trees.put(name, Json.mapper().valueToTree(schema)));
+
+        // 初始时所有 schema 在同一组，每轮按 (所在分组, 自身结构, 引用的分组) 细分，分组数不再增加即稳定
+        Map<String, Integer> groups = Maps.newHashMap();
+        for (final String name : trees.keySet()) {
+            groups.put(name, 0);
+        }
+        int groupCount = 1;
+
+        while (true) {
+            final Map<String, Integer> signatures = Maps.newHashMap();
+            final Map<String, Integer> next = Maps.newHashMap();
+            for (final Entry<String, JsonNode> entry : trees.entrySet()) {
+                final StringBuilder signature = new StringBuilder().append(groups.get(entry.getKey())).append('|');
+                writeSignature(entry.getValue(), groups, signature);
+                next.put(entry.getKey(), signatures.computeIfAbsent(signature.toString(), it -> signatures.size()));
+            }
+
+            groups = next;
+            if (signatures.size() == groupCount) {
+                return groups;
+            }
+            groupCount = signatures.size();
+        }
+    }
+
+    void writeSignature(JsonNode node, Map<String, Integer> groups, StringBuilder signature) {
+        if (node.isObject()) {
+            signature.append('{');
+            final Iterator<Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                final Entry<String, JsonNode> field = fields.next();
+                signature.append(Json.mapper().getNodeFactory().textNode(field.getKey())).append(':');
+
+                final String ref = "$ref".equals(field.getKey()) && field.getValue().isTextual() ? refName(field.getValue().asText()) : null;
+                final Integer group = ref == null ? null : groups.get(ref);
+                if (group != null) {
+                    signature.append('#').append(group);
+                } else {
+                    writeSignature(field.getValue(), groups, signature);
+                }
+                signature.append(',');
+            }
+            signature.append('}');
+        } else if (node.isArray()) {
+            signature.append('[');
+            for (final JsonNode element : node) {
+                writeSignature(element, groups, signature);
+                signature.append(',');
+            }
+            signature.append(']');
+        } else {
+            signature.append(node);
+        }
+    }
+
+    /**
+     * 每组保留第一个 schema 的名称，组内有不可删除的 schema 时保留其中第一个.
+     *
+     * @return 被删除的名称 -&gt; 保留的名称
+     */
+    Map<String, String> replacements(Map<String, Integer> groups) {
+        final Map<Integer, List<String>> members = Maps.newHashMap();
+        components.getSchemas().keySet().forEach(name -> members.computeIfAbsent(groups.get(name), it -> Lists.newArrayList()).add(name));
+
+        final Map<String, String> replacements = Maps.newLinkedHashMap();
+        for (final List<String> names : members.values()) {
+            if (names.size() < 2) {
+                continue;
+            }
+            final String kept = names.stream().filter(pinned::contains).findFirst().orElse(names.get(0));
+            for (final String name : names) {
+                if (!name.equals(kept) && !pinned.contains(name)) {
+                    replacements.put(name, kept);
+                }
+            }
+        }
+        return replacements;
+    }
+
+    static String refName(String ref) {
+        return ref != null && ref.startsWith(REF_PREFIX) ? ref.substring(REF_PREFIX.length()) : null;
+    }
+
+    /**
+     * 各接口的参数、请求体及响应中直接使用的 schema.
+     */
+    void forEachOperationSchema(Consumer<Schema<?>> consumer) {
+        if (openAPI.getPaths() == null) {
+            return;
+        }
+        for (final PathItem pathItem : openAPI.getPaths().values()) {
+            for (final Operation operation : pathItem.readOperations()) {
+                final List<Parameter> parameters = Lists.newArrayList();
+                if (pathItem.getParameters() != null) {
+                    parameters.addAll(pathItem.getParameters());
+                }
+                if (operation.getParameters() != null) {
+                    parameters.addAll(operation.getParameters());
+                }
+                for (final Parameter parameter : parameters) {
+                    accept(parameter.getSchema(), consumer);
+                    forEachContentSchema(parameter.getContent(), consumer);
+                }
+                if (operation.getRequestBody() != null) {
+                    forEachContentSchema(operation.getRequestBody().getContent(), consumer);
+                }
+                if (operation.getResponses() != null) {
+                    for (final ApiResponse response : operation.getResponses().values()) {
+                        forEachContentSchema(response.getContent(), consumer);
+                    }
+                }
+            }
+        }
+    }
+
+    static void forEachContentSchema(Content content, Consumer<Schema<?>> consumer) {
+        if (content != null) {
+            for (final MediaType mediaType : content.values()) {
+                accept(mediaType.getSchema(), consumer);
+            }
+        }
+    }
+
+    static void accept(Schema<?> schema, Consumer<Schema<?>> consumer) {
+        if (schema != null) {
+            consumer.accept(schema);
+        }
+    }
+
+    /**
+     * 遍历 schema 及其内联的子 schema，同一对象只访问一次.
+     */
+    static void forEachSchema(Schema<?> root, Consumer<Schema<?>> consumer) {
+        final Set<Schema<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Schema<?>> stack = Lists.newArrayList(root);
+        while (!stack.isEmpty()) {
+            final Schema<?> schema = stack.remove(stack.size() - 1);
+            if (schema == null || !visited.add(schema)) {
+                continue;
+            }
+            consumer.accept(schema);
+
+            if (schema.getProperties() != null) {
+                schema.getProperties().values().forEach(stack::add);
+            }
+            stack.add(schema.getItems());
+            if (schema.getAdditionalProperties() instanceof Schema) {
+                stack.add((Schema<?>) schema.getAdditionalProperties());
+            }
+            stack.add(schema.getNot());
+            Stream.of(schema.getAllOf(), schema.getAnyOf(), schema.getOneOf())
+                    .filter(Objects::nonNull)
+                    .flatMap(List::stream)
+                    .forEach(stack::add);
+        }
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 按 tag 拆分 openapi.json：每个 tag 一个只含其接口的 openapi-{tag}.json，
+ * components 统一放在 components.json 中，各文件通过 components.json#/components/... 引用.
+ * <p>
+ * 没有 tag 的接口归入 {@link #DEFAULT_TAG}。拆分后检查每个文件引用的 component 及其间接引用的 component
+ * 均存在于 components.json 中，否则抛出异常，调用方须在写出任何文件之前完成拆分.
+ */
+@Slf4j
+final class TagShards {
+
+    static final String COMPONENTS_FILENAME = "components.json";
+
+    static final String DEFAULT_TAG = "default";
+
+    static final String LOCAL_REF_PREFIX = "#/components/";
+
+    static final String SHARED_REF_PREFIX = COMPONENTS_FILENAME + LOCAL_REF_PREFIX;
+
+    /**
+     * 同一目录下以 openapi- 开头但不是 tag 文件的文件.
+     */
+    static final Set<String> NOT_SHARDS = Sets.newHashSet("openapi-manual.json", "openapi-metrics.json");
+
+    static final List<String> METHODS = Lists.newArrayList("get", "put", "post", "delete", "options", "head", "patch", "trace");
+
+    private final ObjectNode root;
+
+    private final ObjectNode components;
+
+    private TagShards(OpenAPI openAPI) {
+        this.root = Json.mapper().valueToTree(openAPI);
+        final JsonNode components = root.remove("components");
+        this.components = components instanceof ObjectNode ? (ObjectNode) components : Json.mapper().createObjectNode();
+    }
+
+    /**
+     * @return 文件名 -&gt; 文件内容，components.json 在最前，其余按 tag 第一次出现的顺序
+     */
+    static Map<String, JsonNode> split(OpenAPI openAPI) {
+        return new TagShards(openAPI).split();
+    }
+
+    /**
+     * 删除 directory 中本次没有生成的 tag 文件（包括其 .min.json、.gz），如 tag 被删除或改名后留下的文件.
+     *
+     * @param filenames 本次生成的文件名
+     */
+    static void deleteStale(File directory, Set<String> filenames) throws IOException {
+        final File[] files = directory.listFiles(File::isFile);
+        for (final File file : files == null ? new File[0] : files) {
+            final String name = StringUtils.removeEnd(file.getName(), ".gz").replaceFirst("\\.min\\.json$", ".json");
+            if (name.startsWith("openapi-") && name.endsWith(".json")
+                    && !NOT_SHARDS.contains(name) && !filenames.contains(name)) {
+                log.info("Delete stale tag file {}.", file);
+                Files.delete(file.toPath());
+            }
+        }
+    }
+
+    static String filename(String tag) {
+        return "openapi-" + tag.replaceAll("[^\\w.-]", "-") + ".json";
+    }
+
+    Map<String, JsonNode> split() {
+        final Map<String, ObjectNode> paths = Maps.newLinkedHashMap();
+
+        final JsonNode rootPaths = root.path("paths");
+        final Iterator<Entry<String, JsonNode>> pathIterator = rootPaths.fields();
+        while (pathIterator.hasNext()) {
+            final Entry<String, JsonNode> path = pathIterator.next();
+            for (final String method : METHODS) {
+                final JsonNode operation = path.getValue().get(method);
+                if (operation == null) {
+                    continue;
+                }
+                final ObjectNode tagPaths = paths.computeIfAbsent(tagOf(operation), it -> Json.mapper().createObjectNode());
+                final ObjectNode pathItem = tagPaths.has(path.getKey())
+                        ? (ObjectNode) tagPaths.get(path.getKey())
+                        : copyWithoutOperations((ObjectNode) path.getValue(), tagPaths.putObject(path.getKey()));
+                pathItem.set(method, operation.deepCopy());
+            }
+        }
+
+        final Map<String, JsonNode> files = Maps.newLinkedHashMap();
+        files.put(COMPONENTS_FILENAME, componentsDocument());
+        paths.forEach((tag, tagPaths) -> files.put(filename(tag), tagDocument(tag, tagPaths)));
+
+        checkReachability(files);
+
+        return files;
+    }
+
+    static String tagOf(JsonNode operation) {
+        for (final JsonNode tag : operation.path("tags")) {
+            if (tag.isTextual()) {
+                return tag.asText();
+            }
+        }
+        return DEFAULT_TAG;
+    }
+
+    static ObjectNode copyWithoutOperations(ObjectNode source, ObjectNode target) {
+        source.fields().forEachRemaining(field -> {
+            if (!METHODS.contains(field.getKey())) {
+                target.set(field.getKey(), field.getValue().deepCopy());
+            }
+        });
+        return target;
+    }
+
+    /**
+     * 与 openapi.json 相同的文档信息，paths 为空.
+     */
+    ObjectNode componentsDocument() {
+        final ObjectNode document = Json.mapper().createObjectNode();
+        root.fields().forEachRemaining(field -> {
+            if ("paths".equals(field.getKey())) {
+                document.putObject("paths");
+            } else if (!"tags".equals(field.getKey())) {
+                document.set(field.getKey(), field.getValue());
+            }
+        });
+        document.set("components", components);
+        return document;
+    }
+
+    ObjectNode tagDocument(String tag, ObjectNode paths) {
+        final ObjectNode document = Json.mapper().createObjectNode();
+        root.fields().forEachRemaining(field -> {
+            if ("paths".equals(field.getKey())) {
+                document.set("paths", paths);
+            } else if ("tags".equals(field.getKey())) {
+                final ArrayNode tags = document.putArray("tags");
+                field.getValue().forEach(it -> {
+                    if (tag.equals(it.path("name").asText(null))) {
+                        tags.add(it);
+                    }
+                });
+            } else {
+                document.set(field.getKey(), field.getValue());
+            }
+        });
+
+        forEachRef(paths, ref -> {
+            if (ref.getValue().asText().startsWith(LOCAL_REF_PREFIX)) {
+                ref.setValue(Json.mapper().getNodeFactory().textNode(COMPONENTS_FILENAME + ref.getValue().asText()));
+            }
+        });
+        return document;
+    }
+
+    /**
+     * 从每个 tag 文件出发，沿 components 内部的引用遍历，引用的 component 必须存在.
+     */
+    void checkReachability(Map<String, JsonNode> files) {
+        final Set<String> reachable = Sets.newHashSet();
+        final List<String> missing = Lists.newArrayList();
+
+        files.forEach((filename, document) -> {
+            if (COMPONENTS_FILENAME.equals(filename)) {
+                return;
+            }
+
+            final List<String> pending = Lists.newArrayList();
+            forEachRef(document, ref -> {
+                final String value = ref.getValue().asText();
+                if (value.startsWith(SHARED_REF_PREFIX)) {
+                    pending.add(value.substring(COMPONENTS_FILENAME.length()));
+                }
+            });
+
+            while (!pending.isEmpty()) {
+                final String ref = pending.remove(pending.size() - 1);
+                if (!reachable.add(ref)) {
+                    continue;
+                }
+                final JsonNode component = components.at(ref.substring(LOCAL_REF_PREFIX.length() - 1));
+                if (component.isMissingNode()) {
+                    missing.add(filename + ": " + ref);
+                    continue;
+                }
+                forEachRef(component, it -> {
+                    if (it.getValue().asText().startsWith(LOCAL_REF_PREFIX)) {
+                        pending.add(it.getValue().asText());
+                    }
+                });
+            }
+        });
+
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Unresolved component refs after splitting by tag: " + missing);
+        }
+
+        int total = 0;
+        for (final JsonNode it : components) {
+            total += it.size();
+        }
+        log.info("Split into {} tag files, {} of {} components are reachable.", files.size() - 1, reachable.size(), total);
+    }
+
+    /**
+     * 遍历所有 $ref 字段.
+     */
+    static void forEachRef(JsonNode node, Consumer<Entry<String, JsonNode>> consumer) {
+        if (node.isObject()) {
+            node.fields().forEachRemaining(field -> {
+                if ("$ref".equals(field.getKey()) && field.getValue().isTextual()) {
+                    consumer.accept(field);
+                } else {
+                    forEachRef(field.getValue(), consumer);
+                }
+            });
+        } else if (node.isArray()) {
+            node.forEach(it -> forEachRef(it, consumer));
+        }
+    }
+
+}
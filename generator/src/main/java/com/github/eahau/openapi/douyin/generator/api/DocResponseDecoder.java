@@ -0,0 +1,51 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.api;
+
+import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.DocResponse;
+import com.google.common.io.CountingInputStream;
+import feign.Response;
+import feign.codec.Decoder;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 解码 {@link DocResponse} 时统计响应体的字节数（解压后）.
+ */
+@RequiredArgsConstructor
+public class DocResponseDecoder implements Decoder {
+
+    private final Decoder delegate;
+
+    @Override
+    public Object decode(final Response response, final Type type) throws IOException {
+        if (type != DocResponse.class || response.body() == null) {
+            return delegate.decode(response, type);
+        }
+
+        final CountingInputStream inputStream = new CountingInputStream(response.body().asInputStream());
+
+        final Object object = delegate.decode(response.toBuilder().body(inputStream, response.body().length()).build(), type);
+        if (object != null) {
+            ((DocResponse) object).setResponseBytes(inputStream.getCount());
+        }
+
+        return object;
+    }
+
+}
@@ -19,9 +19,14 @@ import com.github.eahau.openapi.douyin.generator.Misc;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -79,6 +84,96 @@ public interface DouYinOpenApiListApi {
             return Misc.GSON.fromJson(json, ApiListResponse.class);
         }
 
+        /**
+         * 与 {@code fromJson(json).getOps()} 结果一致，但只反序列化 ops，其余内容直接跳过.
+         */
+        public static Map<String, OpsList> readOps(String json) {
+            try (JsonReader reader = new JsonReader(new StringReader(json))) {
+                reader.setLenient(true);
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("content".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            if ("children".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                                return readFirstChild(reader).getOps();
+                            }
+                            reader.skipValue();
+                        }
+                        reader.endObject();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+            } catch (IOException e) {
+                throw new JsonParseException(e);
+            }
+
+            throw new IllegalStateException("missing content.children");
+        }
+
+        /**
+         * 读取数组中的第一个 {@link ContentChildren}，跳过其余元素.
+         */
+        private static OpsNode readFirstChild(JsonReader reader) throws IOException {
+            reader.beginArray();
+            if (!reader.hasNext()) {
+                throw new IllegalStateException("empty content.children");
+            }
+            final OpsNode node = readNode(reader);
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endArray();
+            return node;
+        }
+
+        private static OpsNode readNode(JsonReader reader) throws IOException {
+            final OpsNode node = new OpsNode();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("props".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    final Props props = Misc.GSON.fromJson(reader, Props.class);
+                    final PropsValue value = props == null ? null : props.value;
+                    if (value != null) {
+                        node.props = value;
+                    }
+                } else if ("children".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY && node.props == null) {
+                    // children 可能在 props 之前，先读出来，如果自身有 props 则不使用
+                    node.firstChild = readFirstChild(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return node;
+        }
+
+        /**
+         * {@link ContentChildren} 中与 ops 有关的部分.
+         */
+        private static class OpsNode {
+
+            PropsValue props;
+
+            OpsNode firstChild;
+
+            Map<String, OpsList> getOps() {
+                OpsNode node = this;
+                while (node.props == null) {
+                    node = node.firstChild;
+                    if (node == null) {
+                        throw new IllegalStateException("missing props.value");
+                    }
+                }
+                return node.props.t;
+            }
+        }
+
     }
 
     @Getter
@@ -62,6 +62,15 @@ public interface DouYinOpenDocApi {
 
         public String path;
 
+        /**
+         * 以下为统计信息.
+         */
+        private transient long responseBytes;
+
+        private transient long toMarkdownNanos;
+
+        private transient long parseNanos;
+
         public boolean isJson() {
             return type == 1;
         }
@@ -71,17 +80,24 @@ public interface DouYinOpenDocApi {
         }
 
         public GeneratorContent toGeneratorContext() {
+            JsonDocParser jsonDocParser = null;
             if (isJson()) {
-                final ApiListResponse apiListResponse = ApiListResponse.fromJson(getContent());
-
-                final String markdown = new JsonDocParser(apiListResponse.getOps()).toMarkdown();
+                final long start = System.nanoTime();
+                jsonDocParser = new JsonDocParser(ApiListResponse.readOps(getContent()));
+                final String markdown = jsonDocParser.toMarkdown();
                 setContent(markdown);
+                toMarkdownNanos = System.nanoTime() - start;
 
 //                return new MarkdownParser(this).parse();
             }
 
             // isMarkdownHeadHtmlBody
-            return new HtmlParser(this).parse();
+            final long start = System.nanoTime();
+            try {
+                return new HtmlParser(this, jsonDocParser).parse();
+            } finally {
+                parseNanos = System.nanoTime() - start;
+            }
         }
 
     }
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.http;
+
+import com.github.eahau.openapi.douyin.generator.Misc;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import feign.Client;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.Response;
+import feign.Util;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * 基于磁盘的 http 缓存，保存文档内容及其校验信息（ETag/Last-Modified/updateTime）.
+ * <p>
+ * 未过期的缓存直接本地命中，过期的则发起条件请求（If-None-Match/If-Modified-Since）重新校验，
+ * 有效期为 0 时每次都重新校验.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CachingClient implements Client {
+
+    private final Client delegate;
+
+    private final File directory;
+
+    /**
+     * 缓存有效期，超过则需要重新校验.
+     */
+    private final long maxAgeMillis;
+
+    /**
+     * 按 url 覆盖缓存有效期，返回负数时使用默认值.
+     */
+    @Setter
+    private volatile ToLongFunction<String> maxAgeOverride = url -> -1;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong revalidations = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @Getter
+    @Setter
+    static class CacheEntry {
+
+        private String url;
+
+        private String etag;
+
+        private String lastModified;
+
+        private String updateTime;
+
+        private String contentType;
+
+        private String sha256;
+
+        private long storedAt;
+
+        private transient byte[] body;
+
+    }
+
+    @Override
+    public Response execute(final Request request, final Options options) throws IOException {
+        if (request.httpMethod() != HttpMethod.GET) {
+            return delegate.execute(request, options);
+        }
+
+        final String key = Hashing.sha256().hashString(request.url(), StandardCharsets.UTF_8).toString();
+
+        final CacheEntry entry = read(key);
+        if (entry != null && System.currentTimeMillis() - entry.getStoredAt() < maxAge(request.url())) {
+            hits.incrementAndGet();
+            return toResponse(request, entry);
+        }
+
+        final Response response = delegate.execute(entry == null ? request : conditional(request, entry), options);
+
+        if (entry != null && response.status() == 304) {
+            Util.ensureClosed(response);
+
+            entry.setStoredAt(System.currentTimeMillis());
+            write(key, entry, false);
+            revalidations.incrementAndGet();
+
+            return toResponse(request, entry);
+        }
+
+        if (response.status() != 200 || response.body() == null) {
+            misses.incrementAndGet();
+            return response;
+        }
+
+        final byte[] body;
+        try {
+            body = Util.toByteArray(response.body().asInputStream());
+        } finally {
+            Util.ensureClosed(response);
+        }
+
+        final CacheEntry newEntry = new CacheEntry();
+        newEntry.setUrl(request.url());
+        newEntry.setEtag(firstHeader(response, "ETag"));
+        newEntry.setLastModified(firstHeader(response, "Last-Modified"));
+        newEntry.setContentType(firstHeader(response, "Content-Type"));
+        newEntry.setUpdateTime(readUpdateTime(body));
+        newEntry.setSha256(Hashing.sha256().hashBytes(body).toString());
+        newEntry.setStoredAt(System.currentTimeMillis());
+        newEntry.setBody(body);
+
+        // 服务端不支持条件请求时，根据内容摘要或文档更新时间判断是否有变化
+        final boolean sameBody = entry != null && StringUtils.equals(entry.getSha256(), newEntry.getSha256());
+        final boolean unchanged = sameBody
+                || (entry != null && entry.getUpdateTime() != null && entry.getUpdateTime().equals(newEntry.getUpdateTime()));
+
+        (unchanged ? revalidations : misses).incrementAndGet();
+
+        write(key, newEntry, !sameBody);
+
+        return response.toBuilder().body(body).build();
+    }
+
+    long maxAge(String url) {
+        final long maxAge = maxAgeOverride.applyAsLong(url);
+        return maxAge < 0 ? maxAgeMillis : maxAge;
+    }
+
+    public void report() {
+        log.info("Doc cache: {} hits, {} revalidations, {} misses.", hits.get(), revalidations.get(), misses.get());
+    }
+
+    static String firstHeader(Response response, String name) {
+        for (final Map.Entry<String, Collection<String>> entry : response.headers().entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && CollectionUtils.isNotEmpty(entry.getValue())) {
+                return entry.getValue().iterator().next();
+            }
+        }
+
+        return null;
+    }
+
+    static Request conditional(Request request, CacheEntry entry) {
+        final Map<String, Collection<String>> headers = Maps.newLinkedHashMap(request.headers());
+        if (entry.getEtag() != null) {
+            headers.put("If-None-Match", Collections.singletonList(entry.getEtag()));
+        }
+        if (entry.getLastModified() != null) {
+            headers.put("If-Modified-Since", Collections.singletonList(entry.getLastModified()));
+        }
+
+        return Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(), request.requestTemplate());
+    }
+
+    static Response toResponse(Request request, CacheEntry entry) {
+        final Map<String, Collection<String>> headers = Maps.newLinkedHashMap();
+        if (entry.getContentType() != null) {
+            headers.put("Content-Type", Collections.singletonList(entry.getContentType()));
+        }
+
+        return Response.builder()
+                .status(200)
+                .reason("OK")
+                .headers(headers)
+                .body(entry.getBody())
+                .request(request)
+                .build();
+    }
+
+    /**
+     * 文档接口的响应中带有 updateTime，只读取顶层的该字段.
+     */
+    static String readUpdateTime(byte[] body) {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("updateTime".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                    return reader.nextString();
+                }
+                reader.skipValue();
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // 非 json 响应
+        }
+
+        return null;
+    }
+
+    CacheEntry read(String key) {
+        final File meta = new File(directory, key + ".json");
+        final File body = new File(directory, key + ".body");
+        if (!meta.isFile() || !body.isFile()) {
+            return null;
+        }
+
+        try {
+            final CacheEntry entry = Misc.GSON.fromJson(FileUtils.readFileToString(meta, StandardCharsets.UTF_8), CacheEntry.class);
+            entry.setBody(FileUtils.readFileToByteArray(body));
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            log.warn("read cache {} failed, ignored.", meta, e);
+            return null;
+        }
+    }
+
+    void write(String key, CacheEntry entry, boolean withBody) {
+        try {
+            FileUtils.forceMkdir(directory);
+            if (withBody) {
+                writeAtomically(new File(directory, key + ".body"), entry.getBody());
+            }
+            writeAtomically(new File(directory, key + ".json"), Misc.GSON.toJson(entry).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("write cache {} failed, ignored.", entry.getUrl(), e);
+        }
+    }
+
+    public static void writeAtomically(File file, byte[] bytes) throws IOException {
+        final File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            Files.write(tmp.toPath(), bytes);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.http;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.RateLimiter;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.Util;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文档抓取调度.
+ * <p>
+ * 作为 {@link Client} 包装真正发起网络请求的 client:
+ * <ul>
+ *     <li>每个 host 一个令牌桶，限制请求速率</li>
+ *     <li>AIMD 调整并发数，响应正常时缓慢增加，429/5xx/超时或延迟明显变大时成倍减少</li>
+ *     <li>可重试的失败按指数退避 + 随机抖动重试，优先使用 Retry-After</li>
+ * </ul>
+ * 命中本地缓存的请求不经过这里，不受限流影响.
+ */
+@Slf4j
+public class CrawlScheduler implements Client {
+
+    private final Client delegate;
+
+    private final double permitsPerSecond;
+
+    private final int maxRetries;
+
+    private final long baseBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final ConcurrentMap<String, RateLimiter> rateLimiters = Maps.newConcurrentMap();
+
+    private final AimdLimiter limiter;
+
+    public CrawlScheduler(Client delegate, int maxConcurrency, double permitsPerSecond, int maxRetries) {
+        this.delegate = delegate;
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxRetries = maxRetries;
+        this.baseBackoffMillis = 200;
+        this.maxBackoffMillis = TimeUnit.SECONDS.toMillis(10);
+        this.limiter = new AimdLimiter(maxConcurrency);
+    }
+
+    RateLimiter rateLimiter(String url) {
+        final String host = URI.create(url).getHost();
+        return rateLimiters.computeIfAbsent(String.valueOf(host), ignored -> RateLimiter.create(permitsPerSecond));
+    }
+
+    @Override
+    public Response execute(final Request request, final Options options) throws IOException {
+        final RateLimiter rateLimiter = rateLimiter(request.url());
+
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire();
+            limiter.acquire();
+
+            final long start = System.nanoTime();
+            Response response = null;
+            IOException exception = null;
+            try {
+                response = delegate.execute(request, options);
+                if (!isThrottled(response.status())) {
+                    response = readBody(response);
+                }
+            } catch (IOException e) {
+                Util.ensureClosed(response);
+                response = null;
+                exception = e;
+            } finally {
+                limiter.release();
+            }
+            final long latencyNanos = System.nanoTime() - start;
+
+            final boolean throttled = exception != null || isThrottled(response.status());
+            if (throttled) {
+                limiter.onDropped();
+            } else {
+                limiter.onSuccess(latencyNanos);
+            }
+
+            if (!throttled || attempt >= maxRetries) {
+                if (exception != null) {
+                    throw exception;
+                }
+                return response;
+            }
+
+            final long delay = backoffMillis(attempt, response);
+            log.warn("request {} failed ({}), retry after {} ms.",
+                    request.url(), exception != null ? exception.toString() : response.status(), delay);
+
+            Util.ensureClosed(response);
+            sleep(delay);
+        }
+    }
+
+    /**
+     * 在占用并发名额期间读完响应体，响应体的传输也受并发限制、计入延迟.
+     */
+    static Response readBody(Response response) throws IOException {
+        if (response.body() == null) {
+            return response;
+        }
+        try {
+            return response.toBuilder().body(Util.toByteArray(response.body().asInputStream())).build();
+        } finally {
+            Util.ensureClosed(response);
+        }
+    }
+
+    static boolean isThrottled(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    long backoffMillis(int attempt, Response response) {
+        if (response != null) {
+            final String retryAfter = CachingClient.firstHeader(response, "Retry-After");
+            if (NumberUtils.isDigits(retryAfter)) {
+                return Math.min(TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter)), maxBackoffMillis);
+            }
+        }
+
+        // full jitter
+        final long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(baseBackoffMillis, Math.max(baseBackoffMillis, ceiling) + 1);
+    }
+
+    static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    public void report() {
+        log.info("Crawler: concurrency limit {}, {} throttled responses.", limiter.getLimit(), limiter.getDropped());
+    }
+
+    /**
+     * additive increase / multiplicative decrease 的并发限制.
+     */
+    static class AimdLimiter {
+
+        /**
+         * 延迟超过平均延迟的倍数时，视为拥塞.
+         */
+        static final double LATENCY_TOLERANCE = 3;
+
+        final int maxLimit;
+
+        double limit;
+
+        int inflight;
+
+        double avgLatencyNanos;
+
+        long dropped;
+
+        AimdLimiter(int maxLimit) {
+            this.maxLimit = maxLimit;
+            this.limit = Math.min(4, maxLimit);
+        }
+
+        synchronized int getLimit() {
+            return (int) limit;
+        }
+
+        synchronized long getDropped() {
+            return dropped;
+        }
+
+        synchronized void acquire() throws InterruptedIOException {
+            try {
+                while (inflight >= (int) limit) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            inflight++;
+        }
+
+        synchronized void release() {
+            inflight--;
+            notifyAll();
+        }
+
+        synchronized void onSuccess(long latencyNanos) {
+            final boolean congested = avgLatencyNanos > 0 && latencyNanos > avgLatencyNanos * LATENCY_TOLERANCE;
+
+            avgLatencyNanos = avgLatencyNanos == 0 ? latencyNanos : avgLatencyNanos * 0.9 + latencyNanos * 0.1;
+
+            if (congested) {
+                limit = Math.max(1, limit * 0.9);
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            notifyAll();
+        }
+
+        synchronized void onDropped() {
+            dropped++;
+            limit = Math.max(1, limit / 2);
+        }
+
+    }
+
+}
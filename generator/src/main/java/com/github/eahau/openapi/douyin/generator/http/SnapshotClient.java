@@ -0,0 +1,196 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.http;
+
+import com.google.common.collect.Maps;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.Util;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 录制/回放文档接口的响应.
+ * <p>
+ * 录制时将所有成功的响应按 url 排序后写入一个 gzip 压缩的快照文件；
+ * 回放时完全从快照读取，不访问网络，快照中不存在的 url 返回 404.
+ */
+@Slf4j
+public class SnapshotClient implements Client {
+
+    @AllArgsConstructor
+    static class Entry {
+
+        final String contentType;
+
+        final byte[] body;
+
+    }
+
+    /**
+     * 回放时为 null.
+     */
+    private final Client delegate;
+
+    private final Map<String, Entry> entries;
+
+    private SnapshotClient(Client delegate, Map<String, Entry> entries) {
+        this.delegate = delegate;
+        this.entries = entries;
+    }
+
+    public static SnapshotClient record(Client delegate) {
+        return new SnapshotClient(delegate, Maps.newConcurrentMap());
+    }
+
+    public static SnapshotClient replay(File file) throws IOException {
+        final Map<String, Entry> entries = Maps.newHashMap();
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String url = null, contentType = null, body = null;
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "url":
+                            url = reader.nextString();
+                            break;
+                        case "contentType":
+                            contentType = reader.nextString();
+                            break;
+                        case "body":
+                            body = reader.nextString();
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                entries.put(url, new Entry(contentType, body.getBytes(StandardCharsets.UTF_8)));
+            }
+            reader.endArray();
+        }
+
+        log.info("replay {} responses from snapshot {}.", entries.size(), file);
+
+        return new SnapshotClient(null, entries);
+    }
+
+    @Override
+    public Response execute(final Request request, final Options options) throws IOException {
+        if (delegate == null) {
+            final Entry entry = entries.get(request.url());
+            if (entry == null) {
+                log.warn("{} not found in snapshot.", request.url());
+                return Response.builder()
+                        .status(404)
+                        .reason("Not Found In Snapshot")
+                        .headers(Collections.emptyMap())
+                        .request(request)
+                        .build();
+            }
+
+            return toResponse(request, entry);
+        }
+
+        final Response response = delegate.execute(request, options);
+        if (response.status() != 200 || response.body() == null) {
+            return response;
+        }
+
+        final byte[] body;
+        try {
+            body = Util.toByteArray(response.body().asInputStream());
+        } finally {
+            Util.ensureClosed(response);
+        }
+
+        final Entry entry = new Entry(CachingClient.firstHeader(response, "Content-Type"), body);
+        entries.put(request.url(), entry);
+
+        return response.toBuilder().body(body).build();
+    }
+
+    static Response toResponse(Request request, Entry entry) {
+        final Map<String, Collection<String>> headers = Maps.newLinkedHashMap();
+        if (entry.contentType != null) {
+            headers.put("Content-Type", Collections.singletonList(entry.contentType));
+        }
+
+        return Response.builder()
+                .status(200)
+                .reason("OK")
+                .headers(headers)
+                .body(entry.body)
+                .request(request)
+                .build();
+    }
+
+    /**
+     * 按 url 排序写入，相同的响应得到相同的快照文件.
+     */
+    public void save(File file) throws IOException {
+        FileUtils.forceMkdirParent(file);
+
+        final File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath()))), StandardCharsets.UTF_8))) {
+                writer.beginArray();
+                for (final Map.Entry<String, Entry> it : new TreeMap<>(entries).entrySet()) {
+                    final Entry entry = it.getValue();
+                    writer.beginObject().name("url").value(it.getKey());
+                    if (entry.contentType != null) {
+                        writer.name("contentType").value(entry.contentType);
+                    }
+                    writer.name("body").value(new String(entry.body, StandardCharsets.UTF_8)).endObject();
+                }
+                writer.endArray();
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+
+        log.info("recorded {} responses to snapshot {}.", entries.size(), file);
+    }
+
+}
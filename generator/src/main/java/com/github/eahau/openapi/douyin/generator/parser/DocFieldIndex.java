@@ -0,0 +1,245 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.github.eahau.openapi.douyin.generator.DocField;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang3.CharUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * {@link HtmlParser#parseTable} 中 object/array 字段的索引，按 name:type 去重，保持插入顺序.
+ * <p>
+ * 下文标题只由字母和下划线组成，按字段名前缀（忽略大小写）、类型及描述中的单词子串建立索引，
+ * 查找时只校验候选字段，不再遍历所有字段.
+ */
+final class DocFieldIndex {
+
+    static final int NONE = Integer.MAX_VALUE;
+
+    /**
+     * 前缀树，每个节点记录经过它的所有字段序号.
+     */
+    static final class Trie {
+
+        final Map<Character, Trie> children = Maps.newHashMap();
+
+        final NavigableSet<Integer> seqs = Sets.newTreeSet();
+
+        void insert(CharSequence key, int seq) {
+            Trie node = this;
+            node.seqs.add(seq);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), it -> new Trie());
+                node.seqs.add(seq);
+            }
+        }
+
+        /**
+         * 插入所有后缀，即可按子串查找.
+         */
+        void insertSubstrings(String key, int seq) {
+            for (int i = 0; i < key.length(); i++) {
+                insert(key.substring(i), seq);
+            }
+        }
+
+        NavigableSet<Integer> find(CharSequence prefix) {
+            Trie node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node == null ? Collections.emptyNavigableSet() : node.seqs;
+        }
+    }
+
+    /**
+     * 按序号排列的字段，相同 name:type 的字段替换原位置.
+     */
+    private final List<DocField> fields = Lists.newArrayList();
+
+    private final Map<String, Integer> keys = Maps.newHashMap();
+
+    /**
+     * 字段名（忽略大小写）前缀.
+     */
+    private final Trie names = new Trie();
+
+    private final Map<String, NavigableSet<Integer>> exactNames = Maps.newHashMap();
+
+    /**
+     * 类型中单词的子串.
+     */
+    private final Trie types = new Trie();
+
+    /**
+     * 描述中单词的子串，字段被替换后旧的描述仍在索引中，查找时校验.
+     */
+    private final Trie descs = new Trie();
+
+    static String keyOf(DocField docField) {
+        return String.join(":", docField.getName(), docField.getType());
+    }
+
+    static boolean isWordChar(char c) {
+        return c == '_' || CharUtils.isAsciiAlpha(c);
+    }
+
+    static boolean isWord(String text) {
+        return !text.isEmpty() && text.chars().allMatch(c -> isWordChar((char) c));
+    }
+
+    /**
+     * 与 {@link StringUtils#startsWithIgnoreCase} 逐字符比较的规则一致.
+     */
+    static String fold(String text) {
+        final char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    static void indexWords(Trie trie, String text, int seq) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            final boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                trie.insertSubstrings(text.substring(start, i), seq);
+                start = -1;
+            }
+        }
+    }
+
+    public boolean containsKey(DocField docField) {
+        return get(docField) != null;
+    }
+
+    public DocField get(DocField docField) {
+        final Integer seq = keys.get(keyOf(docField));
+        return seq == null ? null : fields.get(seq);
+    }
+
+    public void put(DocField docField) {
+        final String key = keyOf(docField);
+        final Integer existSeq = keys.get(key);
+        if (existSeq != null) {
+            // name、type 不变，只有描述需要重新索引
+            fields.set(existSeq, docField);
+            indexWords(descs, docField.getDesc(), existSeq);
+            return;
+        }
+
+        final int seq = fields.size();
+        fields.add(docField);
+        keys.put(key, seq);
+
+        final String name = docField.getName();
+        if (name != null) {
+            names.insert(fold(name), seq);
+            exactNames.computeIfAbsent(name, it -> Sets.newTreeSet()).add(seq);
+        }
+        indexWords(types, docField.getType(), seq);
+        indexWords(descs, docField.getDesc(), seq);
+    }
+
+    /**
+     * 按插入顺序找到第一个 名称以 clzName 开头、类型包含 clzName 或 描述包含 clzName 的字段.
+     * 若先匹配到的是描述，则为该字段添加一个名为 clzName 的 object 子字段.
+     */
+    public boolean matchClassName(String clzName) {
+        final int byNameOrType, byDesc;
+        if (isWord(clzName)) {
+            byNameOrType = Math.min(
+                    first(names.find(fold(clzName)), it -> StringUtils.startsWithIgnoreCase(it.getName(), clzName)),
+                    first(types.find(clzName), it -> it.getType().contains(clzName))
+            );
+            byDesc = first(descs.find(clzName), it -> StringUtils.contains(it.getDesc(), clzName));
+        } else {
+            byNameOrType = scan(it -> StringUtils.startsWithIgnoreCase(it.getName(), clzName) || it.getType().contains(clzName));
+            byDesc = scan(it -> StringUtils.contains(it.getDesc(), clzName));
+        }
+
+        if (byNameOrType <= byDesc) {
+            return byNameOrType != NONE;
+        }
+
+        final DocField docField = new DocField();
+        fields.get(byDesc).addChild(docField);
+
+        docField.setName(clzName);
+        docField.setType("object");
+        put(docField);
+
+        return true;
+    }
+
+    /**
+     * 按插入顺序遍历类型包含 clzName 或 名称等于 clzName 的字段.
+     */
+    public void forEachByClassName(String clzName, Consumer<DocField> consumer) {
+        final Predicate<DocField> predicate = it -> it.getType().contains(clzName) || StringUtils.equals(it.getName(), clzName);
+
+        final NavigableSet<Integer> candidates = Sets.newTreeSet(exactNames.getOrDefault(clzName, Collections.emptyNavigableSet()));
+        if (isWord(clzName)) {
+            candidates.addAll(types.find(clzName));
+        } else {
+            for (int seq = 0; seq < fields.size(); seq++) {
+                candidates.add(seq);
+            }
+        }
+
+        for (final Integer seq : candidates) {
+            final DocField docField = fields.get(seq);
+            if (predicate.test(docField)) {
+                consumer.accept(docField);
+            }
+        }
+    }
+
+    private int first(NavigableSet<Integer> candidates, Predicate<DocField> predicate) {
+        for (final Integer seq : candidates) {
+            if (predicate.test(fields.get(seq))) {
+                return seq;
+            }
+        }
+        return NONE;
+    }
+
+    private int scan(Predicate<DocField> predicate) {
+        for (int seq = 0; seq < fields.size(); seq++) {
+            if (predicate.test(fields.get(seq))) {
+                return seq;
+            }
+        }
+        return NONE;
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+import com.vladsch.flexmark.ast.Heading;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.BiConsumer;
+
+/**
+ * 按 heading 的文本分发到对应的 section 处理器.
+ * <p>
+ * 所有处理器的关键字编译为一个 Aho-Corasick 自动机，每个 heading 只扫描一遍文本，
+ * 匹配的处理器按注册顺序执行，处理器增多不影响每个 heading 的开销.
+ */
+final class HeadingDispatcher<T> {
+
+    static final int ANY_LEVEL = 0;
+
+    enum Match {
+
+        /**
+         * heading 文本等于某个关键字.
+         */
+        EQUALS,
+
+        /**
+         * heading 文本包含某个关键字.
+         */
+        CONTAINS
+    }
+
+    @AllArgsConstructor
+    static final class Section<T> {
+
+        final int level;
+
+        final Match match;
+
+        final BiConsumer<T, Heading> handler;
+    }
+
+    static final class Builder<T> {
+
+        final List<Section<T>> sections = Lists.newArrayList();
+
+        final List<String> keywords = Lists.newArrayList();
+
+        final List<List<Integer>> sectionsByKeyword = Lists.newArrayList();
+
+        /**
+         * @param level 只处理该级别的 heading，{@link #ANY_LEVEL} 表示不限
+         */
+        Builder<T> on(int level, Match match, BiConsumer<T, Heading> handler, String... keywords) {
+            final int section = sections.size();
+            sections.add(new Section<>(level, match, handler));
+
+            for (final String keyword : keywords) {
+                int index = this.keywords.indexOf(keyword);
+                if (index < 0) {
+                    index = this.keywords.size();
+                    this.keywords.add(keyword);
+                    sectionsByKeyword.add(Lists.newArrayList());
+                }
+                sectionsByKeyword.get(index).add(section);
+            }
+            return this;
+        }
+
+        HeadingDispatcher<T> build() {
+            return new HeadingDispatcher<>(this);
+        }
+    }
+
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    private final List<Section<T>> sections;
+
+    private final int[] keywordLengths;
+
+    private final int[][] sectionsByKeyword;
+
+    /**
+     * 自动机的状态转移，下标为状态.
+     */
+    private final List<Map<Character, Integer>> transitions = Lists.newArrayList();
+
+    private final List<Integer> failures = Lists.newArrayList();
+
+    /**
+     * 到达该状态时匹配的关键字（含失败链上的）.
+     */
+    private final List<int[]> outputs = Lists.newArrayList();
+
+    private HeadingDispatcher(Builder<T> builder) {
+        this.sections = Lists.newArrayList(builder.sections);
+        this.keywordLengths = builder.keywords.stream().mapToInt(String::length).toArray();
+        this.sectionsByKeyword = builder.sectionsByKeyword.stream().map(Ints::toArray).toArray(int[][]::new);
+
+        final List<List<Integer>> outputs = Lists.newArrayList();
+        newState(outputs);
+
+        for (int keyword = 0; keyword < keywordLengths.length; keyword++) {
+            int state = 0;
+            for (final char c : builder.keywords.get(keyword).toCharArray()) {
+                Integer next = transitions.get(state).get(c);
+                if (next == null) {
+                    next = newState(outputs);
+                    transitions.get(state).put(c, next);
+                }
+                state = next;
+            }
+            outputs.get(state).add(keyword);
+        }
+
+        // 广度优先计算失败指针
+        final Queue<Integer> queue = new ArrayDeque<>();
+        for (final Integer child : transitions.get(0).values()) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            for (final Map.Entry<Character, Integer> entry : transitions.get(state).entrySet()) {
+                final int child = entry.getValue();
+                queue.add(child);
+
+                int failure = failures.get(state);
+                while (failure != 0 && !transitions.get(failure).containsKey(entry.getKey())) {
+                    failure = failures.get(failure);
+                }
+                final Integer next = transitions.get(failure).get(entry.getKey());
+                final int childFailure = next == null || next == child ? 0 : next;
+                failures.set(child, childFailure);
+                outputs.get(child).addAll(outputs.get(childFailure));
+            }
+        }
+
+        for (final List<Integer> output : outputs) {
+            this.outputs.add(Ints.toArray(output));
+        }
+    }
+
+    private int newState(List<List<Integer>> outputs) {
+        transitions.add(Maps.newHashMap());
+        failures.add(0);
+        outputs.add(Lists.newArrayList());
+        return transitions.size() - 1;
+    }
+
+    /**
+     * @param text heading 的文本，为 null 时不处理
+     */
+    void dispatch(T target, Heading heading, String text) {
+        if (text == null) {
+            return;
+        }
+
+        final BitSet matched = new BitSet(sections.size());
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            Integer next;
+            while ((next = transitions.get(state).get(c)) == null && state != 0) {
+                state = failures.get(state);
+            }
+            state = next == null ? 0 : next;
+
+            for (final int keyword : outputs.get(state)) {
+                // 从头匹配到尾即为相等
+                final boolean equals = keywordLengths[keyword] == text.length();
+                for (final int section : sectionsByKeyword[keyword]) {
+                    if (equals || sections.get(section).match == Match.CONTAINS) {
+                        matched.set(section);
+                    }
+                }
+            }
+        }
+
+        for (int section = matched.nextSetBit(0); section >= 0; section = matched.nextSetBit(section + 1)) {
+            final Section<T> it = sections.get(section);
+            if (it.level == ANY_LEVEL || it.level == heading.getLevel()) {
+                it.handler.accept(target, heading);
+            }
+        }
+    }
+
+}
@@ -20,6 +20,7 @@ import com.github.eahau.openapi.douyin.generator.GeneratorContent;
 import com.github.eahau.openapi.douyin.generator.GeneratorContent.GeneratorContentBuilder;
 import com.github.eahau.openapi.douyin.generator.Misc;
 import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.DocResponse;
+import com.github.eahau.openapi.douyin.generator.parser.HeadingDispatcher.Match;
 import com.google.common.collect.ImmutableRangeMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -48,13 +49,11 @@ import io.swagger.v3.oas.models.PathItem.HttpMethod;
 import io.swagger.v3.oas.models.servers.Server;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.CharUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import java.net.URL;
@@ -62,12 +61,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.EnumSet;
-import java.util.LinkedHashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -117,9 +114,27 @@ public class HtmlParser {
 
     final com.vladsch.flexmark.util.ast.Document markdown;
 
+    /**
+     * 生成 json 文档 markdown 的 {@link JsonDocParser}，其中的 table 只是占位，html 文档为 null.
+     */
+    final JsonDocParser jsonDocParser;
+
     final GeneratorContentBuilder builder = GeneratorContent.builder();
 
-    final List<Consumer<Heading>> consumers;
+    /**
+     * heading -> 文本，没有文本时为 null.
+     */
+    final Map<Node, String> headingTexts = new IdentityHashMap<>();
+
+    static final HeadingDispatcher<HtmlParser> SECTIONS = HeadingDispatcher.<HtmlParser>builder()
+            .on(2, Match.EQUALS, HtmlParser::parseDesc, "接口说明")
+            .on(HeadingDispatcher.ANY_LEVEL, Match.EQUALS, HtmlParser::parseBaseInfo, "请求地址", "基本信息")
+            .on(2, Match.EQUALS, HtmlParser::parseHeader, "请求头")
+            .on(2, Match.EQUALS, HtmlParser::parseRequestParams, "请求参数")
+            .on(2, Match.CONTAINS, HtmlParser::parseResponse, "响应参数", "返回值")
+            .on(3, Match.CONTAINS, HtmlParser::parseResponseExample, "响应样例", "正常")
+            .on(3, Match.CONTAINS, HtmlParser::parseErrorResponseExample, "异常", "失败", "错误")
+            .build();
 
     /**
      * 只处理匹配的 heading 的子节点.
@@ -135,74 +150,62 @@ public class HtmlParser {
     }
 
     public HtmlParser(final DocResponse response) {
+        this(response, null);
+    }
+
+    /**
+     * @param jsonDocParser 生成 response content 的 {@link JsonDocParser}，html 文档为 null
+     */
+    public HtmlParser(final DocResponse response, final JsonDocParser jsonDocParser) {
         this.response = response;
+        this.jsonDocParser = jsonDocParser;
         this.builder.title(response.getTitle()).docPath(response.getPath());
         this.markdown = PARSER.parse(response.getContent());
+    }
 
-        this.consumers = Arrays.asList(
-                it -> {
-                    if (it.getLevel() == 2 && StringUtils.equals(getHeadingText(it), "接口说明")) {
+    protected void parseDesc(Node node) {
+        final StringBuilder desc = new StringBuilder();
+        visit((Heading) node, it -> desc.append(text(it.getChars())).append("\n"));
+        builder.desc(desc.toString());
+    }
 
-                        final StringBuilder desc = new StringBuilder();
-                        visit(it, node -> desc.append(node.getChars()).append("\n"));
-                        builder.desc(desc.toString());
-                    }
-                },
-                it -> {
-                    if (StringUtils.equalsAny(getHeadingText(it), "请求地址", "基本信息")) {
-                        parseBaseInfo(it);
-                    }
-                },
-                it -> {
-                    if (it.getLevel() == 2 && StringUtils.equals(getHeadingText(it), "请求头")) {
-                        parseHeader(it);
-                    }
-                },
-                it -> {
-                    if (it.getLevel() == 2 && StringUtils.equals(getHeadingText(it), "请求参数")) {
-                        visit(it, next -> {
-                            if (!(next instanceof Heading)) {
-                                return;
-                            }
-                            final String headingText = getHeadingText(next);
-                            if (StringUtils.contains(headingText, "Header")) {
-                                parseHeader(next);
-                            } else if (StringUtils.contains(headingText, "Body")) {
-                                parseBody(next);
-                            } else if (StringUtils.containsAny(headingText, "Query", "URL 请求")) {
-                                parseQuery(next);
-                            }
-                        });
-                    }
-                },
-                it -> {
-                    if (it.getLevel() == 2 && StringUtils.containsAny(getHeadingText(it), "响应参数", "返回值")) {
-                        parseResponse(it);
-                    }
-                },
-                it -> {
-                    if (it.getLevel() != 3) {
-                        return;
-                    }
+    protected void parseRequestParams(Node node) {
+        visit((Heading) node, next -> {
+            if (!(next instanceof Heading)) {
+                return;
+            }
+            final String headingText = getHeadingText(next);
+            if (StringUtils.contains(headingText, "Header")) {
+                parseHeader(next);
+            } else if (StringUtils.contains(headingText, "Body")) {
+                parseBody(next);
+            } else if (StringUtils.containsAny(headingText, "Query", "URL 请求")) {
+                parseQuery(next);
+            }
+        });
+    }
 
-                    if (StringUtils.containsAny(getHeadingText(it), "响应样例", "正常")) {
-                        parseResponseExample(it);
-                    }
-                    if (StringUtils.containsAny(getHeadingText(it), "异常", "失败", "错误")) {
-                        parseErrorResponseExample(it);
-                    }
-                }
-        );
+    /**
+     * 原始文本，json 文档中的占位 table 替换为完整的 html.
+     */
+    String text(CharSequence chars) {
+        return jsonDocParser == null ? chars.toString() : jsonDocParser.expandTables(chars);
     }
 
-    static Map<String, String> tableToMap(Document document) {
-        final Elements tr = document.select("tr");
-        final Elements elements = tr.isEmpty() ? document.select("td") : tr;
+    HtmlTable toTable(Node node) {
+        final BasedSequence chars = node.getChars();
+        if (jsonDocParser != null) {
+            final HtmlTable table = jsonDocParser.getTable(chars);
+            return table != null ? table : HtmlTable.of(jsonDocParser.expandTables(chars));
+        }
+
+        return HtmlTable.of(chars);
+    }
 
+    static Map<String, String> tableToMap(HtmlTable table) {
         final Map<String, String> map = Maps.newHashMap();
-        for (final Element e : elements) {
-            final Elements td = e.select("td");
-            final List<String> textList = (td.isEmpty() ? e.select("th") : td).eachText();
+        for (final HtmlTable.Row row : table.getRows()) {
+            final List<String> textList = row.getTexts();
             if (textList.size() == 2) {
                 map.put(textList.get(0), textList.get(1));
             }
@@ -232,9 +235,7 @@ public class HtmlParser {
 
     protected void parseBaseInfo(Node node) {
         if (node.getNext() instanceof HtmlBlock) {
-            Document document = Jsoup.parse(node.getNext().getChars().toString());
-
-            final Map<String, String> baseInfoMap = tableToMap(document);
+            final Map<String, String> baseInfoMap = tableToMap(toTable(node.getNext()));
 
             Optional.ofNullable(baseInfoMap.get("HTTP URL"))
                     .ifPresent(httpUrl -> {
@@ -289,7 +290,7 @@ public class HtmlParser {
 
             visit((Heading) node, next -> {
                 if (next instanceof Block) {
-                    final String text = next.getChildChars().toString().trim();
+                    final String text = text(next.getChildChars()).trim();
                     final StringTokenizer stringTokenizer = new StringTokenizer(text, "[]");
 
                     while (stringTokenizer.hasMoreTokens()) {
@@ -316,7 +317,7 @@ public class HtmlParser {
                                                     .description(
                                                             Optional.ofNullable(next.getPrevious())
                                                                     .map(Node::getChildChars)
-                                                                    .map(String::valueOf)
+                                                                    .map(this::text)
                                                                     .orElse(null)
                                                     )
                                     );
@@ -336,19 +337,18 @@ public class HtmlParser {
     protected void parseHeader(Node node) {
         Node next = node.getNext();
         if (next instanceof HtmlBlock) {
-            Document document = Jsoup.parse(next.getChars().toString());
-            builder.headFields(parseHead(document));
+            builder.headFields(parseHead(toTable(next)));
         } else if (next instanceof ListBlock) {
             final List<String> textList = Streams.stream(next.getChildIterator())
                     .map(Node::getChildChars)
                     .map(BasedSequence::trim)
-                    .map(BasedSequence::toString)
+                    .map(this::text)
                     .collect(Collectors.toList());
 
             builder.headFields(parseHead(textList));
         }
 
-        if (StringUtils.contains(next.getChars(), "通用参数-平台请求开发者公共参数")) {
+        if (StringUtils.contains(text(next.getChars()), "通用参数-平台请求开发者公共参数")) {
             return;
         }
 
@@ -364,9 +364,7 @@ public class HtmlParser {
         visit(heading, next -> {
             if (next instanceof HtmlBlock || next instanceof Paragraph) {
                 Optional.of(next)
-                        .map(Node::getChars)
-                        .map(String::valueOf)
-                        .map(Jsoup::parse)
+                        .map(this::toTable)
                         .map(this::parseTableOrData)
                         .ifPresent(builder::queryFields);
             }
@@ -386,12 +384,20 @@ public class HtmlParser {
             return null;
         }
 
-        return Streams.stream(node.getChildIterator())
-                .filter(it -> it instanceof Text)
-                .findFirst()
-                .map(Node::getChars)
-                .map(BasedSequence::toString)
-                .orElse(null);
+        if (headingTexts.containsKey(node)) {
+            return headingTexts.get(node);
+        }
+
+        String text = null;
+        for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+            if (child instanceof Text) {
+                text = child.getChars().toString();
+                break;
+            }
+        }
+        headingTexts.put(node, text);
+
+        return text;
     }
 
     /**
@@ -430,42 +436,15 @@ public class HtmlParser {
 
         final int level = ((Heading) topHtmlBlock.getPreviousAny(Heading.class)).getLevel();
 
-        Document document = Jsoup.parse(topHtmlBlock.getChars().toString());
-        final List<DocField> res = tableToDocFields(document);
-
-        final Map<Object, DocField> objectTypeDocFieldMap = new LinkedHashMap<Object, DocField>() {
-
-            String keyOf(Object key) {
-                if (key instanceof CharSequence) {
-                    return key.toString();
-                }
-
-                final DocField docField = (DocField) key;
-                return String.join(":", docField.getName(), docField.getType());
-            }
-
-            @Override
-            public boolean containsKey(final Object key) {
-                return get(key) != null;
-            }
-
-            @Override
-            public DocField get(final Object key) {
-                return super.get(keyOf(key));
-            }
-
-            @Override
-            public DocField put(final Object key, final DocField value) {
-                return super.put(keyOf(key), value);
-            }
-        };
+        final List<DocField> res = tableToDocFields(toTable(topHtmlBlock));
 
+        final DocFieldIndex objectTypeDocFieldIndex = new DocFieldIndex();
 
         Stream.concat(res.stream(), res.stream()
                 .map(DocField::flatChildren)
                 .flatMap(Collection::stream))
                 .filter(DocField::isArrayOrObject)
-                .forEach(it -> objectTypeDocFieldMap.put(it, it));
+                .forEach(objectTypeDocFieldIndex::put);
 
         Node next = topHtmlBlock.getNextAny(Heading.class);
         while (next != null) {
@@ -484,8 +463,7 @@ public class HtmlParser {
                     continue;
                 }
 
-                document = Jsoup.parse(htmlBlock.getChars().toString());
-                final List<DocField> docFields = tableToDocFields(document);
+                final List<DocField> docFields = tableToDocFields(toTable(htmlBlock));
 
                 if (docFields.isEmpty()) {
                     continue;
@@ -493,57 +471,26 @@ public class HtmlParser {
 
                 docFields.stream()
                         .filter(DocField::isArrayOrObject)
-                        .filter(it -> !objectTypeDocFieldMap.containsKey(it))
-                        .forEach(it -> objectTypeDocFieldMap.put(it, it));
-
-                final String clzName = getPreHeadingText(
-                        next,
-                        testClzName -> objectTypeDocFieldMap.values()
-                                .stream()
-                                .anyMatch(it -> {
-                                    // 下文标题==上文提到的字段名
-                                    if (StringUtils.startsWithIgnoreCase(it.getName(), testClzName)) {
-                                        return true;
-                                    }
-
-                                    if (it.getType().contains(testClzName)) {
-                                        return true;
-                                    }
-
-                                    // 描述 中提到了下文标题
-                                    if (StringUtils.contains(it.getDesc(), testClzName)) {
-                                        final DocField docField = new DocField();
-                                        it.getChildren().add(docField);
-
-                                        docField.setName(testClzName);
-                                        docField.setType("object");
-                                        objectTypeDocFieldMap.put(docField, docField);
-
-                                        return true;
-                                    }
-
-                                    return false;
-                                })
-                );
+                        .filter(it -> !objectTypeDocFieldIndex.containsKey(it))
+                        .forEach(objectTypeDocFieldIndex::put);
+
+                // 下文标题==上文提到的字段名、类型，或 描述 中提到了下文标题
+                final String clzName = getPreHeadingText(next, objectTypeDocFieldIndex::matchClassName);
 
                 if (clzName == null) {
-                    throw new IllegalArgumentException("Can't find the right `clzName` in heading or other node " + next.getChars());
+                    throw new IllegalArgumentException("Can't find the right `clzName` in heading or other node " + text(next.getChars()));
                 }
 
-                objectTypeDocFieldMap.values()
-                        .stream()
-                        .filter(it -> it.getType().contains(clzName) || StringUtils.equals(it.getName(), clzName))
-                        .forEach(docField -> {
-                            final List<DocField> children = docField.getChildren();
-                            if (CollectionUtils.isEmpty(children)) {
-                                docField.setChildren(docFields);
-                            } else if (!children.equals(docFields)) {
-                                docField.addSchema(docFields);
-                            }
-                        });
+                objectTypeDocFieldIndex.forEachByClassName(clzName, docField -> {
+                    if (!docField.hasChildren()) {
+                        docField.setChildren(docFields);
+                    } else if (!docField.getChildren().equals(docFields)) {
+                        docField.addSchema(docFields);
+                    }
+                });
 
                 docFields.forEach(docField ->
-                        Optional.ofNullable(objectTypeDocFieldMap.get(docField))
+                        Optional.ofNullable(objectTypeDocFieldIndex.get(docField))
                                 .ifPresent(it -> docField.setChildren(it.getChildren()))
                 );
             }
@@ -558,18 +505,17 @@ public class HtmlParser {
         if (htmlBlock != null) {
             respFields = parseTable(htmlBlock);
         } else {
-            Document document = Jsoup.parse(node.getNextAny().getChars().toString());
-            respFields = parseTableOrData(document);
+            respFields = parseTableOrData(toTable(node.getNextAny()));
         }
         builder.respFields(respFields);
     }
 
     protected void parseResponseExample(Node node) {
-        builder.responseJson(node.getNext().getChildChars().toString());
+        builder.responseJson(text(node.getNext().getChildChars()));
     }
 
     protected void parseErrorResponseExample(Node node) {
-        builder.errorResponseJson(node.getNext().getChildChars().unescape());
+        builder.errorResponseJson(BasedSequence.of(text(node.getNext().getChildChars())).unescape());
     }
 
     @SneakyThrows
@@ -580,7 +526,7 @@ public class HtmlParser {
                         return;
                     }
                     for (final BasedSequence segment : text.getContentLines()) {
-                        final Document document = Jsoup.parse(segment.toString());
+                        final Document document = Jsoup.parse(text(segment));
                         final Elements customHeading = document.select("customheading");
                         if (customHeading.isEmpty()) {
 
@@ -600,7 +546,7 @@ public class HtmlParser {
 
         markdown.getChildIterator().forEachRemaining(node -> {
             if (node instanceof Heading) {
-                consumers.forEach(it -> it.accept((Heading) node));
+                SECTIONS.dispatch(this, (Heading) node, getHeadingText(node));
             } else if (node instanceof Paragraph) {
                 paragraphConsumers.forEach(it -> it.accept((Paragraph) node));
             }
@@ -609,16 +555,16 @@ public class HtmlParser {
         return builder.build();
     }
 
-    static List<DocField> parseHead(Document document) {
-        Elements elements = document.select("li");
-        if (elements.isEmpty()) {
-            final List<DocField> docFields = tableToDocFields(document);
+    static List<DocField> parseHead(HtmlTable table) {
+        final List<String> listItems = table.getListItems();
+        if (listItems.isEmpty()) {
+            final List<DocField> docFields = tableToDocFields(table);
             if (!docFields.isEmpty()) {
                 return docFields;
             }
         }
 
-        return parseHead(elements.eachText());
+        return parseHead(listItems);
     }
 
     static List<DocField> parseHead(List<String> textList) {
@@ -650,46 +596,48 @@ public class HtmlParser {
                 .collect(Collectors.toList());
     }
 
-    List<DocField> parseTableOrData(Element element) {
-        final Elements data = element.getElementsByAttribute("data");
+    List<DocField> parseTableOrData(HtmlTable table) {
+        final String dataJson = table.getData();
 
-        if (!data.isEmpty()) {
-            final String dataJson = data.first().attr("data");
+        if (dataJson != null) {
 
             return Stream.of("fields", "data")
                     .filter(it -> dataJson.startsWith("{\"" + it))
                     .findFirst()
                     .map(it -> JsonPath.parse(dataJson).read(it, DocField[].class))
-                    .map(Arrays::asList)
+                    .map(docFields -> {
+                        Arrays.stream(docFields).filter(Objects::nonNull).forEach(DocField::intern);
+                        return Arrays.asList(docFields);
+                    })
                     .orElse(Collections.emptyList());
         }
 
-        return tableToDocFields(element);
+        return tableToDocFields(table);
     }
 
-    static int calculateColspan(List<Element> elements) {
-        return elements.stream()
-                .map(it -> it.attr("colspan"))
+    static int calculateColspan(List<HtmlTable.Cell> cells) {
+        return cells.stream()
+                .map(HtmlTable.Cell::colspanAttr)
                 .mapToInt(Integer::parseInt)
                 .sum();
     }
 
-    static RangeMap<Integer, String> toRangeMetadata(Element metadata) {
+    static RangeMap<Integer, String> toRangeMetadata(HtmlTable.Row metadata) {
 
-        final Elements elements = metadata.children();
+        final List<HtmlTable.Cell> elements = metadata.getCells();
 
         final ImmutableRangeMap.Builder<Integer, String> builder = ImmutableRangeMap.builder();
 
         int start = 0, end = 1;
-        String column = elements.get(start).text();
+        String column = elements.get(start).getText();
         final int size = elements.size();
         final int maxIndex = size - 1;
 
         for (; end <= maxIndex; end++) {
-            final Element element = elements.get(end);
-            String nextColumn = element.text();
+            final HtmlTable.Cell element = elements.get(end);
+            String nextColumn = element.getText();
             if (!nextColumn.isEmpty()) {
-                final String colspan = element.attr("colspan");
+                final String colspan = element.colspanAttr();
                 final int lower, upper;
                 if (StringUtils.isNotBlank(colspan)) {
                     lower = calculateColspan(elements.subList(0, start));
@@ -717,98 +665,176 @@ public class HtmlParser {
         return builder.build();
     }
 
-    static List<DocField> tableToDocFields(Element document) {
+    /**
+     * 由表头编译出的 列 -> setter，每个 table 只计算一次.
+     */
+    static final class ColumnPlan {
+
+        static final BiConsumer<DocField, String> NONE = (docField, value) -> {
+        };
+
+        final RangeMap<Integer, String> rangeMap;
+
+        final List<String> columns;
+
+        /**
+         * 下标 [0, columnByIndex.length) 的列名，超出部分都落在同一个区间，即 tailColumn.
+         */
+        final String[] columnByIndex;
+
+        final String tailColumn;
+
+        /**
+         * 列名为空时，按单元格下标 i 取前面最近的非空列名，i == 1 时取第一列.
+         */
+        final String[] fallbackColumn;
+
+        final Map<String, BiConsumer<DocField, String>> setters = Maps.newHashMap();
+
+        ColumnPlan(HtmlTable.Row metadata) {
+            this.rangeMap = toRangeMetadata(metadata);
+            this.columns = metadata.eachText();
+
+            int length = 0;
+            for (final Range<Integer> range : rangeMap.asMapOfRanges().keySet()) {
+                if (range.hasLowerBound()) {
+                    length = Math.max(length, range.lowerEndpoint() + 1);
+                }
+                if (range.hasUpperBound()) {
+                    length = Math.max(length, range.upperEndpoint() + 1);
+                }
+            }
+            this.columnByIndex = new String[length];
+            for (int index = 0; index < length; index++) {
+                columnByIndex[index] = rangeMap.get(index);
+            }
+            this.tailColumn = rangeMap.get(length);
+
+            this.fallbackColumn = new String[columns.size() + 1];
+            String last = "";
+            for (int i = 0; i < fallbackColumn.length; i++) {
+                fallbackColumn[i] = i == 1 ? columns.get(0) : last;
+                if (i < columns.size() && StringUtils.isNotBlank(columns.get(i))) {
+                    last = columns.get(i);
+                }
+            }
+        }
+
+        String column(int index, int i) {
+            final String column;
+            if (index >= 0 && index < columnByIndex.length) {
+                column = columnByIndex[index];
+            } else {
+                column = index < 0 ? rangeMap.get(index) : tailColumn;
+            }
 
-        final Elements elements = document.select("tr");
+            if (StringUtils.isNotBlank(column)) {
+                return column;
+            }
+            if (i >= fallbackColumn.length) {
+                // 与 columns.subList(0, i) 越界时一致
+                throw new IndexOutOfBoundsException("toIndex = " + i);
+            }
+            return fallbackColumn[i];
+        }
+
+        BiConsumer<DocField, String> setter(int index, int i) {
+            final BiConsumer<DocField, String> setter = setters.computeIfAbsent(column(index, i), column -> {
+                final BiConsumer<DocField, String> it = DocField.getByColumnName(column);
+                return it == null ? NONE : it;
+            });
+            return setter == NONE ? null : setter;
+        }
+    }
+
+    static List<DocField> tableToDocFields(HtmlTable table) {
+
+        final List<HtmlTable.Row> elements = table.getRows();
 
         if (elements.isEmpty()) {
 //            log.warn("missing `tr`, {}", document);
             return Collections.emptyList();
         }
 
-        final Element metadata = Objects.requireNonNull(elements.first(), "table 缺少 头信息");
-
-        final RangeMap<Integer, String> rangeMap = toRangeMetadata(metadata);
+        final HtmlTable.Row metadata = Objects.requireNonNull(elements.get(0), "table 缺少 头信息");
 
-        final List<String> columns = metadata.children().eachText();
+        final ColumnPlan plan = new ColumnPlan(metadata);
 
-        final Map<Integer, DocField> lastParentColumn = Maps.newTreeMap(Comparator.<Integer>comparingInt(k -> k).reversed());
+        // nameIndex -> 该层级最近的 object 字段
+        final List<DocField> lastParentColumn = Lists.newArrayList();
 
-        return elements.next()
-                .stream()
-                .map(Element::children)
-                .map(values -> {
-                    final DocField docField = new DocField();
+        final List<HtmlTable.Row> rows = table.getNextRows();
+        final List<DocField> docFields = new ArrayList<>(rows.size());
 
-                    int nameIndex = 0, colspanSum = 0;
+        for (final HtmlTable.Row row : rows) {
+            final List<HtmlTable.Cell> values = row.getCells();
+            final DocField docField = new DocField();
 
-                    for (int i = 0; i < values.size(); i++) {
-                        final Element element = values.get(i);
-                        final String value = element.text();
+            int nameIndex = 0, colspanSum = 0;
 
-                        final boolean hasColspan = element.hasAttr("colspan");
-                        if (hasColspan) {
-                            colspanSum += calculateColspan(Collections.singletonList(element));
-                        }
+            for (int i = 0; i < values.size(); i++) {
+                final HtmlTable.Cell element = values.get(i);
+                final String value = element.getText();
 
-                        if (StringUtils.isBlank(value)) {
-                            continue;
-                        }
+                final boolean hasColspan = element.hasColspan();
+                if (hasColspan) {
+                    colspanSum += Integer.parseInt(element.colspanAttr());
+                }
 
-                        final int index = hasColspan ? colspanSum - 1 : i;
+                if (StringUtils.isBlank(value)) {
+                    continue;
+                }
 
-                        String column = rangeMap.get(index);
-                        if (StringUtils.isBlank(column)) {
-                            column = i == 1 ? columns.get(0) : Lists.reverse(columns.subList(0, i))
-                                    .stream()
-                                    .filter(StringUtils::isNotBlank)
-                                    .findFirst()
-                                    .orElse("");
-                        }
-                        final BiConsumer<DocField, String> setter = DocField.getByColumnName(column);
-                        if (setter != null) {
-                            final String name = docField.getName();
-                            setter.accept(docField, value);
+                final int index = hasColspan ? colspanSum - 1 : i;
 
-                            if (StringUtils.isEmpty(name) && StringUtils.isNotEmpty(docField.getName())) {
-                                nameIndex = i;
-                            }
-                        }
+                final BiConsumer<DocField, String> setter = plan.setter(index, i);
+                if (setter != null) {
+                    final String name = docField.getName();
+                    setter.accept(docField, value);
 
+                    if (StringUtils.isEmpty(name) && StringUtils.isNotEmpty(docField.getName())) {
+                        nameIndex = i;
                     }
+                }
 
-                    final String name = docField.getName();
-                    if (StringUtils.isBlank(name) || StringUtils.equalsAny(name, ".", "-")) {
-                        // 忽略一条空数据
-                        return null;
-                    }
+            }
 
-                    final String levelKey = name.startsWith(".") ? "." : (name.startsWith("-") ? "-" : null);
-                    if (levelKey != null) {
-                        final int dotCount = StringUtils.countMatches(name, levelKey.charAt(0));
-                        nameIndex = dotCount;
-                        docField.setName(name.substring(dotCount).trim());
-                    }
+            final String name = docField.getName();
+            if (StringUtils.isBlank(name) || StringUtils.equalsAny(name, ".", "-")) {
+                // 忽略一条空数据
+                continue;
+            }
 
-                    final int finalNameIndex = nameIndex;
-                    lastParentColumn.entrySet()
-                            .stream()
-                            .filter(entry -> entry.getKey() < finalNameIndex)
-                            .findFirst()
-                            .map(Entry::getValue)
-                            .ifPresent(parent -> {
-                                docField.setParent(parent);
-                                parent.getChildren().add(docField);
-                            });
+            final char levelKey = name.charAt(0);
+            if (levelKey == '.' || levelKey == '-') {
+                final int dotCount = StringUtils.countMatches(name, levelKey);
+                nameIndex = dotCount;
+                docField.setName(name.substring(dotCount).trim());
+            }
 
-                    if (docField.isObjectType() || docField.isArrayObject()) {
-                        lastParentColumn.put(nameIndex, docField);
-                    }
+            // 上一个层级更小的 object 字段即为 parent
+            for (int level = Math.min(nameIndex, lastParentColumn.size()) - 1; level >= 0; level--) {
+                final DocField parent = lastParentColumn.get(level);
+                if (parent != null) {
+                    docField.setParent(parent);
+                    parent.addChild(docField);
+                    break;
+                }
+            }
 
-                    return nameIndex == 0 ? docField : null;
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+            if (docField.isObjectType() || docField.isArrayObject()) {
+                while (lastParentColumn.size() <= nameIndex) {
+                    lastParentColumn.add(null);
+                }
+                lastParentColumn.set(nameIndex, docField);
+            }
+
+            if (nameIndex == 0) {
+                docFields.add(docField);
+            }
+        }
+
+        return docFields;
     }
 
 }
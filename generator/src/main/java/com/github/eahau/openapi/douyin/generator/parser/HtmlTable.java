@@ -0,0 +1,711 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.jsoup.Jsoup;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.ParseSettings;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.Tag;
+import org.jsoup.select.Elements;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * html 中的 table 的行和单元格.
+ * <p>
+ * 文档中的 table 结构简单，直接扫描 html 文本得到行和单元格，不需要 jsoup 构建完整的 DOM.
+ * 单元格文本、colspan 等与 jsoup 的结果一致，遇到嵌套 table、列表、注释等无法保证一致的内容时回退到 jsoup.
+ */
+@Getter
+final class HtmlTable {
+
+    @Getter
+    @AllArgsConstructor
+    static final class Cell {
+
+        /**
+         * 与 {@link Element#text()} 一致.
+         */
+        private final String text;
+
+        /**
+         * 与 {@link Element#hasText()} 一致.
+         */
+        private final boolean hasText;
+
+        /**
+         * colspan 属性，不存在时为 null.
+         */
+        private final String colspan;
+
+        public boolean hasColspan() {
+            return colspan != null;
+        }
+
+        /**
+         * 与 {@link Element#attr(String)} 一致，不存在时返回空字符串.
+         */
+        public String colspanAttr() {
+            return colspan == null ? "" : colspan;
+        }
+
+        static Cell of(Element element) {
+            return new Cell(element.text(), element.hasText(), element.hasAttr("colspan") ? element.attr("colspan") : null);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class Row {
+
+        /**
+         * tr 的子元素.
+         */
+        private final List<Cell> cells;
+
+        /**
+         * 与 jsoup {@code (tr.select("td").isEmpty() ? tr.select("th") : tr.select("td")).eachText()} 一致.
+         */
+        private final List<String> texts;
+
+        /**
+         * 有文本的单元格的文本，与 {@code tr.children().eachText()} 一致.
+         */
+        public List<String> eachText() {
+            return cells.stream().filter(Cell::isHasText).map(Cell::getText).collect(Collectors.toList());
+        }
+
+        static Row of(Element tr) {
+            final Elements td = tr.select("td");
+            return new Row(
+                    tr.children().stream().map(Cell::of).collect(Collectors.toList()),
+                    (td.isEmpty() ? tr.select("th") : td).eachText()
+            );
+        }
+    }
+
+    /**
+     * 所有 tr，与 {@code select("tr")} 一致.
+     */
+    private final List<Row> rows;
+
+    /**
+     * 与 {@code select("tr").next()} 一致，即每个 tbody/thead/tfoot 中除第一行外的所有行.
+     */
+    private final List<Row> nextRows;
+
+    /**
+     * 所有 li 的文本，与 {@code select("li").eachText()} 一致.
+     */
+    private final List<String> listItems;
+
+    /**
+     * 第一个带有 data 属性的元素的 data 属性值，与 {@code getElementsByAttribute("data").first().attr("data")} 一致.
+     */
+    private final String data;
+
+    private HtmlTable(List<Row> rows, List<Row> nextRows, List<String> listItems, String data) {
+        this.rows = rows;
+        this.nextRows = nextRows;
+        this.listItems = listItems;
+        this.data = data;
+    }
+
+    public static HtmlTable of(CharSequence html) {
+        final HtmlTable table = new Tokenizer(html).tokenize();
+        return table != null ? table : of(Jsoup.parse(html.toString()));
+    }
+
+    /**
+     * 由单元格文本直接构建，与 {@link JsonDocParser} 生成的 table（第一行为 th，其余为 td）解析后的结果一致.
+     *
+     * @return 文本包含 jsoup 会特殊处理的字符时返回 null
+     */
+    static HtmlTable ofTexts(List<List<String>> textRows) {
+        final List<Row> rows = Lists.newArrayListWithCapacity(textRows.size());
+        for (final List<String> texts : textRows) {
+            final List<Cell> cells = Lists.newArrayListWithCapacity(texts.size());
+            for (final String text : texts) {
+                if (text.indexOf('\0') >= 0) {
+                    return null;
+                }
+                final StringBuilder accum = new StringBuilder(text.length());
+                StringUtil.appendNormalisedWhitespace(accum, text, false);
+                cells.add(new Cell(accum.toString().trim(), !StringUtil.isBlank(text), null));
+            }
+            rows.add(new Row(cells, cells.stream().filter(Cell::isHasText).map(Cell::getText).collect(Collectors.toList())));
+        }
+
+        return new HtmlTable(
+                rows,
+                rows.isEmpty() ? Collections.emptyList() : rows.subList(1, rows.size()),
+                Collections.emptyList(),
+                null
+        );
+    }
+
+    static HtmlTable of(Element document) {
+        final Elements tr = document.select("tr");
+        final Elements data = document.getElementsByAttribute("data");
+        return new HtmlTable(
+                tr.stream().map(Row::of).collect(Collectors.toList()),
+                tr.next().stream().map(Row::of).collect(Collectors.toList()),
+                document.select("li").eachText(),
+                data.isEmpty() ? null : data.first().attr("data")
+        );
+    }
+
+    /**
+     * 按 html 规范扫描 table，只支持 jsoup 解析结果可确定的子集，其余情况返回 null.
+     */
+    static final class Tokenizer {
+
+        /**
+         * 会改变解析方式（raw text、foreign content 等）或 DOM 结构的标签.
+         */
+        static final ImmutableSet<String> UNSUPPORTED = ImmutableSet.of(
+                "script", "style", "textarea", "title", "xmp", "iframe", "noembed", "noframes", "noscript",
+                "plaintext", "template", "svg", "math", "select", "option", "optgroup", "pre", "listing",
+                "html", "head", "body", "frameset", "frame", "image", "isindex", "button", "form",
+                "li", "dd", "dt", "caption", "col", "colgroup", "nobr", "applet", "marquee", "object",
+                "ruby", "rb", "rp", "rt", "rtc", "base", "basefont", "bgsound", "link", "meta", "input"
+        );
+
+        static final ImmutableSet<String> SECTIONS = ImmutableSet.of("thead", "tbody", "tfoot");
+
+        static final ImmutableSet<String> HEADINGS = ImmutableSet.of("h1", "h2", "h3", "h4", "h5", "h6");
+
+        static final ConcurrentMap<String, Tag> TAGS = Maps.newConcurrentMap();
+
+        final CharSequence html;
+
+        final int length;
+
+        int pos;
+
+        final List<Row> rows = Lists.newArrayList();
+
+        final List<Row> nextRows = Lists.newArrayList();
+
+        String data;
+
+        boolean inTable;
+
+        /**
+         * 当前 section 的标签名，null 表示不在 section 中.
+         */
+        String section;
+
+        /**
+         * 当前 section 中的行数.
+         */
+        int sectionRows;
+
+        List<Cell> row;
+
+        /**
+         * 当前行中 td 和 th 的文本，见 {@link Row#getTexts()}.
+         */
+        final List<String> rowTd = Lists.newArrayList(), rowTh = Lists.newArrayList();
+
+        boolean rowHasTd;
+
+        /**
+         * 当前单元格的标签名，null 表示不在单元格中.
+         */
+        String cell;
+
+        String cellColspan;
+
+        boolean cellHasText;
+
+        final StringBuilder accum = new StringBuilder();
+
+        /**
+         * 单元格中未闭合的元素.
+         */
+        final List<Tag> stack = Lists.newArrayList();
+
+        /**
+         * 刚闭合的 block 元素，根据下一个兄弟节点决定是否补充空格，见 {@link Element#text()}.
+         */
+        boolean pendingBlockTail;
+
+        // 当前标签
+        String tagName;
+
+        boolean endTag;
+
+        boolean selfClosing;
+
+        final Map<String, String> attributes = Maps.newHashMap();
+
+        Tokenizer(CharSequence html) {
+            this.html = html;
+            this.length = html.length();
+        }
+
+        HtmlTable tokenize() {
+            while (pos < length) {
+                final int start = pos;
+                final int next = nextMarkup(start);
+                if (next > start) {
+                    if (!text(start, next)) {
+                        return null;
+                    }
+                    pos = next;
+                    continue;
+                }
+
+                if (!readTag() || !(endTag ? endTag() : startTag())) {
+                    return null;
+                }
+            }
+
+            closeCell();
+            closeRow();
+
+            return new HtmlTable(rows, nextRows, Collections.emptyList(), data);
+        }
+
+        /**
+         * 下一个标签（或注释等）的位置，不存在时返回文本末尾.
+         */
+        int nextMarkup(int from) {
+            for (int i = from; i < length; i++) {
+                if (html.charAt(i) == '<' && i + 1 < length) {
+                    final char c = html.charAt(i + 1);
+                    if (isAsciiLetter(c) || c == '/' || c == '!' || c == '?') {
+                        return i;
+                    }
+                }
+            }
+            return length;
+        }
+
+        boolean text(int start, int end) {
+            if (!inTable) {
+                return true;
+            }
+
+            if (cell == null) {
+                // table 中单元格以外的文本会被移到 table 之前
+                for (int i = start; i < end; i++) {
+                    if (!StringUtil.isActuallyWhitespace(html.charAt(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            String text = html.subSequence(start, end).toString();
+            if (text.indexOf('\0') >= 0) {
+                return false;
+            }
+            if (text.indexOf('&') >= 0) {
+                text = Parser.unescapeEntities(text, false);
+            }
+
+            if (pendingBlockTail) {
+                pendingBlockTail = false;
+                appendSpace();
+            }
+            StringUtil.appendNormalisedWhitespace(accum, text, lastCharIsWhitespace());
+            if (!StringUtil.isBlank(text)) {
+                cellHasText = true;
+            }
+
+            return true;
+        }
+
+        boolean startTag() {
+            final String name = tagName;
+
+            if (UNSUPPORTED.contains(name)) {
+                return false;
+            }
+
+            if (!inTable) {
+                if (name.equals("table")) {
+                    if (selfClosing) {
+                        return false;
+                    }
+                    inTable = true;
+                } else if (name.equals("tr") || name.equals("td") || name.equals("th") || SECTIONS.contains(name)) {
+                    return false;
+                }
+                recordData();
+                return true;
+            }
+
+            if (cell != null) {
+                if (name.equals("tr") || name.equals("td") || name.equals("th") || SECTIONS.contains(name)) {
+                    // 隐式结束当前单元格
+                    closeCell();
+                    return startTag();
+                }
+                if (name.equals("table")) {
+                    return false;
+                }
+                return startTagInCell(name);
+            }
+
+            if (selfClosing) {
+                return false;
+            }
+
+            if (SECTIONS.contains(name)) {
+                closeRow();
+                section = name;
+                sectionRows = 0;
+            } else if (name.equals("tr")) {
+                closeRow();
+                if (section == null) {
+                    // 隐式的 tbody
+                    section = "tbody";
+                    sectionRows = 0;
+                }
+                row = Lists.newArrayList();
+                rowTd.clear();
+                rowTh.clear();
+                rowHasTd = false;
+            } else if (name.equals("td") || name.equals("th")) {
+                if (row == null) {
+                    return false;
+                }
+                cell = name;
+                cellColspan = attributes.get("colspan");
+                cellHasText = false;
+                accum.setLength(0);
+                stack.clear();
+                pendingBlockTail = false;
+            } else {
+                return false;
+            }
+
+            recordData();
+            return true;
+        }
+
+        boolean startTagInCell(String name) {
+            final Tag tag = tag(name);
+
+            for (final Tag open : stack) {
+                // 以下情况 jsoup 会隐式闭合已有的元素
+                if (open.normalName().equals("p") && tag.isBlock()) {
+                    return false;
+                }
+                if (open.normalName().equals("a") && name.equals("a")) {
+                    return false;
+                }
+            }
+            if (HEADINGS.contains(name) && !stack.isEmpty() && HEADINGS.contains(stack.get(stack.size() - 1).normalName())) {
+                return false;
+            }
+
+            final boolean isVoid = tag.isEmpty();
+            if (selfClosing && !isVoid) {
+                return false;
+            }
+
+            // 上一个兄弟节点的 tail
+            if (pendingBlockTail) {
+                pendingBlockTail = false;
+                if (!tag.formatAsBlock()) {
+                    appendSpace();
+                }
+            }
+            // head
+            if (accum.length() > 0 && (tag.isBlock() || name.equals("br"))) {
+                appendSpace();
+            }
+
+            if (isVoid) {
+                pendingBlockTail = tag.isBlock();
+            } else {
+                stack.add(tag);
+            }
+
+            recordData();
+            return true;
+        }
+
+        boolean endTag() {
+            final String name = tagName;
+
+            if (!inTable) {
+                return true;
+            }
+
+            if (cell != null) {
+                if (name.equals("td") || name.equals("th")) {
+                    if (!name.equals(cell)) {
+                        return false;
+                    }
+                    closeCell();
+                    return true;
+                }
+                if (name.equals("tr") || name.equals("table") || SECTIONS.contains(name)) {
+                    if (SECTIONS.contains(name) && !name.equals(section)) {
+                        return false;
+                    }
+                    closeCell();
+                    return endTag();
+                }
+
+                final int top = stack.size() - 1;
+                if (top < 0 || !stack.get(top).normalName().equals(name)) {
+                    return false;
+                }
+                // 最后一个子元素没有兄弟节点
+                pendingBlockTail = stack.remove(top).isBlock();
+                return true;
+            }
+
+            switch (name) {
+                case "tr":
+                    closeRow();
+                    return true;
+                case "table":
+                    closeRow();
+                    section = null;
+                    inTable = false;
+                    return true;
+                case "td":
+                case "th":
+                    return true;
+                default:
+                    if (SECTIONS.contains(name) && name.equals(section)) {
+                        if (row != null) {
+                            // 隐式关闭 tr 时 jsoup 不一定结束当前 section，交给 jsoup 处理
+                            return false;
+                        }
+                        section = null;
+                        return true;
+                    }
+                    return false;
+            }
+        }
+
+        void closeCell() {
+            if (cell == null) {
+                return;
+            }
+            final Cell c = new Cell(accum.toString().trim(), cellHasText, cellColspan);
+            row.add(c);
+            if (cell.equals("td")) {
+                rowHasTd = true;
+            }
+            if (cellHasText) {
+                (cell.equals("td") ? rowTd : rowTh).add(c.getText());
+            }
+            cell = null;
+            stack.clear();
+            pendingBlockTail = false;
+        }
+
+        void closeRow() {
+            closeCell();
+            if (row == null) {
+                return;
+            }
+
+            final Row r = new Row(row, Lists.newArrayList(rowHasTd ? rowTd : rowTh));
+            rows.add(r);
+            if (sectionRows++ > 0) {
+                nextRows.add(r);
+            }
+            row = null;
+        }
+
+        void recordData() {
+            if (data == null && attributes.containsKey("data")) {
+                data = attributes.get("data");
+            }
+        }
+
+        void appendSpace() {
+            if (!lastCharIsWhitespace()) {
+                accum.append(' ');
+            }
+        }
+
+        boolean lastCharIsWhitespace() {
+            return accum.length() != 0 && accum.charAt(accum.length() - 1) == ' ';
+        }
+
+        static Tag tag(String name) {
+            return TAGS.computeIfAbsent(name, it -> Tag.valueOf(it, ParseSettings.htmlDefault));
+        }
+
+        static boolean isAsciiLetter(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+
+        static boolean isWhitespace(char c) {
+            return c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == ' ';
+        }
+
+        /**
+         * 读取 pos 处的标签，注释、doctype 等返回 false.
+         */
+        boolean readTag() {
+            int i = pos + 1;
+            final char first = html.charAt(i);
+            if (first == '!' || first == '?') {
+                return false;
+            }
+
+            endTag = first == '/';
+            if (endTag) {
+                i++;
+                if (i >= length || !isAsciiLetter(html.charAt(i))) {
+                    return false;
+                }
+            }
+
+            final int nameStart = i;
+            while (i < length) {
+                final char c = html.charAt(i);
+                if (isWhitespace(c) || c == '/' || c == '>') {
+                    break;
+                }
+                if (c == '\0') {
+                    return false;
+                }
+                i++;
+            }
+            tagName = html.subSequence(nameStart, i).toString().toLowerCase(Locale.ENGLISH);
+            selfClosing = false;
+            attributes.clear();
+
+            // attributes
+            while (true) {
+                while (i < length && isWhitespace(html.charAt(i))) {
+                    i++;
+                }
+                if (i >= length) {
+                    return false;
+                }
+
+                char c = html.charAt(i);
+                if (c == '>') {
+                    pos = i + 1;
+                    return true;
+                }
+                if (c == '/') {
+                    if (i + 1 < length && html.charAt(i + 1) == '>') {
+                        selfClosing = true;
+                        pos = i + 2;
+                        return true;
+                    }
+                    return false;
+                }
+                if (c == '"' || c == '\'' || c == '<' || c == '=') {
+                    return false;
+                }
+
+                final int attrStart = i;
+                while (i < length) {
+                    c = html.charAt(i);
+                    if (isWhitespace(c) || c == '/' || c == '=' || c == '>') {
+                        break;
+                    }
+                    if (c == '"' || c == '\'' || c == '<' || c == '\0') {
+                        return false;
+                    }
+                    i++;
+                }
+                final String attrName = html.subSequence(attrStart, i).toString().toLowerCase(Locale.ENGLISH);
+
+                while (i < length && isWhitespace(html.charAt(i))) {
+                    i++;
+                }
+                if (i >= length) {
+                    return false;
+                }
+
+                String value = "";
+                if (html.charAt(i) == '=') {
+                    i++;
+                    while (i < length && isWhitespace(html.charAt(i))) {
+                        i++;
+                    }
+                    if (i >= length) {
+                        return false;
+                    }
+
+                    final char quote = html.charAt(i);
+                    final int valueStart, valueEnd;
+                    if (quote == '"' || quote == '\'') {
+                        valueStart = i + 1;
+                        i = valueStart;
+                        while (i < length && html.charAt(i) != quote) {
+                            i++;
+                        }
+                        if (i >= length) {
+                            return false;
+                        }
+                        valueEnd = i++;
+                        // 引号后必须是空白、/ 或 >
+                        if (i < length && !isWhitespace(html.charAt(i)) && html.charAt(i) != '/' && html.charAt(i) != '>') {
+                            return false;
+                        }
+                    } else if (quote == '>') {
+                        return false;
+                    } else {
+                        valueStart = i;
+                        while (i < length && !isWhitespace(html.charAt(i)) && html.charAt(i) != '>') {
+                            final char v = html.charAt(i);
+                            if (v == '"' || v == '\'' || v == '<' || v == '=' || v == '`') {
+                                return false;
+                            }
+                            i++;
+                        }
+                        valueEnd = i;
+                    }
+
+                    value = html.subSequence(valueStart, valueEnd).toString();
+                    if (value.indexOf('\0') >= 0) {
+                        return false;
+                    }
+                    if (value.indexOf('&') >= 0) {
+                        value = Parser.unescapeEntities(value, true);
+                    }
+                }
+
+                if (attributes.containsKey(attrName)) {
+                    // 重复的属性
+                    return false;
+                }
+                attributes.put(attrName, value);
+            }
+        }
+    }
+
+}
@@ -17,12 +17,13 @@ package com.github.eahau.openapi.douyin.generator.parser;
 
 import com.github.eahau.openapi.douyin.generator.api.DouYinOpenApiListApi.Ops;
 import com.github.eahau.openapi.douyin.generator.api.DouYinOpenApiListApi.OpsList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import j2html.TagCreator;
 import j2html.tags.DomContent;
 import j2html.tags.specialized.TableTag;
-import lombok.AllArgsConstructor;
 import org.apache.commons.collections4.map.DefaultedMap;
 import org.apache.commons.lang3.StringUtils;
 
@@ -31,14 +32,72 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-@AllArgsConstructor
 public class JsonDocParser {
 
     private final Map<String, OpsList> opsListMap;
 
+    /**
+     * zoneId 按 'x' 分隔后的每一段 -> 包含该段的 OpsList，保持 opsListMap 中的顺序.
+     */
+    private final Map<String, List<OpsList>> zoneIdIndex = Maps.newHashMap();
+
+    /**
+     * 所有不同 zoneId 分段的后缀 -> 出现次数，用于判断某一段是否还是其他分段的子串.
+     */
+    private final NavigableMap<String, Integer> zoneIdSuffixes = Maps.newTreeMap();
+
+    /**
+     * 分段 -> 是否可以直接使用 zoneIdIndex 的结果.
+     */
+    private final Map<String, Boolean> exactComponents = Maps.newHashMap();
+
+    /**
+     * markdown 中只输出带序号的空 table 作为占位，不再渲染完整的 html.
+     */
+    static final Pattern TABLE_PLACEHOLDER = Pattern.compile("<table data-table-id=\"(\\d+)\"></table>");
+
+    /**
+     * 按序号保存每个 table 的单元格文本.
+     */
+    private final List<List<List<String>>> tableTexts = Lists.newArrayList();
+
+    /**
+     * 按序号保存由单元格文本直接构建的 {@link HtmlTable}，{@link HtmlParser} 解析时不必再从 html 中解析.
+     */
+    private final List<HtmlTable> tables = Lists.newArrayList();
+
+    public JsonDocParser(Map<String, OpsList> opsListMap) {
+        this.opsListMap = opsListMap;
+
+        for (final OpsList opsList : opsListMap.values()) {
+            final String zoneId = opsList.getZoneId();
+            if (zoneId == null) {
+                // 与逐个遍历时的行为保持一致，不使用索引
+                zoneIdIndex.clear();
+                break;
+            }
+            for (final String component : StringUtils.splitPreserveAllTokens(zoneId, 'x')) {
+                final List<OpsList> opsLists = zoneIdIndex.computeIfAbsent(component, it -> {
+                    for (int i = 0; i < it.length(); i++) {
+                        zoneIdSuffixes.merge(it.substring(i), 1, Integer::sum);
+                    }
+                    return Lists.newArrayList();
+                });
+                // 同一个 zoneId 中重复的分段只记录一次
+                if (opsLists.isEmpty() || opsLists.get(opsLists.size() - 1) != opsList) {
+                    opsLists.add(opsList);
+                }
+            }
+        }
+    }
+
     public String toMarkdown() {
         final String rootId = "0";
         return getOpsList(rootId)
@@ -101,27 +160,77 @@ public class JsonDocParser {
     private String buildTable(Ops ops) {
         final List<Ops> columnWidthList = getOpsList(ops.getColumnWidthId()).getOps();
 
-        final Map<String, Integer> columnIndexMap = DefaultedMap.defaultedMap(columnWidthList
-                .stream()
+        final Map<String, Integer> columnIndexMap = DefaultedMap.defaultedMap(IntStream.range(0, columnWidthList.size())
+                .boxed()
                 .collect(Collectors.toMap(
-                        Ops::getId,
-                        columnWidthList::indexOf
+                        i -> columnWidthList.get(i).getId(),
+                        i -> i
                 )), 0);
 
         final List<Ops> dataOpsList = getOpsList(ops.getDataId()).getOps();
 
         final Comparator<OpsList> comparator = Comparator.comparing(((Function<OpsList, String>) OpsList::getColumnId).andThen(columnIndexMap::get), Integer::compare);
 
-        final TableTag table = TagCreator.table();
-
         final List<List<String>> tableList = dataOpsList.stream()
                 .map(it -> getSourceFromOps(it, comparator))
                 .map(Collection::stream)
                 .map(it -> it
-                        .map(s -> s.replace("\n", ""))
+                        // 单元格中嵌套的 table 按原样渲染为 html 文本
+                        .map(s -> expandTables(s.replace("\n", "")))
                         .collect(Collectors.toList()))
                 .collect(Collectors.toList());
 
+        final int id = tables.size();
+        tableTexts.add(tableList);
+        tables.add(HtmlTable.ofTexts(tableList));
+
+        return "<table data-table-id=\"" + id + "\"></table>\n";
+    }
+
+    /**
+     * @param chars html block 的内容
+     * @return 内容只有一个占位 table 时返回由单元格文本构建的 {@link HtmlTable}，否则返回 null
+     */
+    public HtmlTable getTable(CharSequence chars) {
+        final Matcher matcher = TABLE_PLACEHOLDER.matcher(chars.toString().trim());
+        return matcher.matches() ? tables.get(tableId(matcher)) : null;
+    }
+
+    /**
+     * 将占位 table 替换为完整的 table html，用于需要原始文本的地方.
+     */
+    public String expandTables(CharSequence chars) {
+        final String text = chars.toString();
+        if (tables.isEmpty() || !text.contains("<table data-table-id=")) {
+            return text;
+        }
+
+        final Matcher matcher = TABLE_PLACEHOLDER.matcher(text);
+        final StringBuffer sb = new StringBuffer(text.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(renderTable(tableId(matcher))));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 文档中恰好有相同文本时序号可能越界，抛出异常由调用方忽略该文档.
+     */
+    private int tableId(Matcher matcher) {
+        final int id = Integer.parseInt(matcher.group(1));
+        if (id >= tables.size()) {
+            throw new IllegalStateException("Unknown table placeholder " + matcher.group());
+        }
+        return id;
+    }
+
+    /**
+     * 第一行为 th，其余为 td.
+     */
+    private String renderTable(int id) {
+        final List<List<String>> tableList = tableTexts.get(id);
+        final TableTag table = TagCreator.table();
         for (int i = 0; i < tableList.size(); i++) {
             final Function<String, DomContent> mapper = i == 0 ? TagCreator::th : TagCreator::td;
             table.with(
@@ -133,8 +242,7 @@ public class JsonDocParser {
                     )
             );
         }
-
-        return table.render() + "\n";
+        return table.render();
     }
 
     private OpsList getOpsList(String id) {
@@ -149,10 +257,8 @@ public class JsonDocParser {
         if (opsList != null) {
             opsLists = Collections.singletonList(opsList.getOps());
         } else {
-            opsLists = opsListMap
-                    .values()
+            opsLists = findByZoneId(id)
                     .stream()
-                    .filter(it -> it.getZoneId().contains(id))
                     .sorted(comparator)
                     .map(OpsList::getOps)
                     .collect(Collectors.toList());
@@ -163,4 +269,41 @@ public class JsonDocParser {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * zoneId 包含 id 的 OpsList.
+     * <p>
+     * id 不含 'x' 时，zoneId 包含 id 等价于 某一段包含 id，若 id 本身是一段且不是其他任何一段的子串，则直接使用索引.
+     */
+    private Collection<OpsList> findByZoneId(String id) {
+        if (exactComponents.computeIfAbsent(id, this::isExactComponent)) {
+            return zoneIdIndex.get(id);
+        }
+
+        return opsListMap
+                .values()
+                .stream()
+                .filter(it -> it.getZoneId().contains(id))
+                .collect(Collectors.toList());
+    }
+
+    private boolean isExactComponent(String id) {
+        if (id.isEmpty() || id.indexOf('x') >= 0 || !zoneIdIndex.containsKey(id)) {
+            return false;
+        }
+
+        // id 本身作为一段只贡献一个以 id 开头的后缀
+        int count = 0;
+        for (final Map.Entry<String, Integer> entry : zoneIdSuffixes.tailMap(id, true).entrySet()) {
+            if (!entry.getKey().startsWith(id)) {
+                break;
+            }
+            count += entry.getValue();
+            if (count > 1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
 }
@@ -279,7 +279,7 @@ public class MarkdownParser extends HtmlParser {
                     if (parent != null) {
 
                         docField.setParent(parent);
-                        parent.getChildren().add(docField);
+                        parent.addChild(docField);
                     }
 
                     if (docField.isObjectType() || docField.isArrayObject()) {
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import org.junit.Assume;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * 测试目录下的简单基准测试，默认跳过，{@code mvn test -Ddouyin.generator.benchmark=true} 时执行.
+ */
+public final class Benchmarks {
+
+    public static final boolean ENABLED = Boolean.getBoolean("douyin.generator.benchmark");
+
+    /**
+     * 保存每次执行的结果，避免被 JIT 当作无用代码消除.
+     */
+    static volatile Object sink;
+
+    private Benchmarks() {
+    }
+
+    public static void assumeEnabled() {
+        Assume.assumeTrue("run with -Ddouyin.generator.benchmark=true", ENABLED);
+    }
+
+    /**
+     * 预热后执行 rounds 次，返回平均每次的耗时（纳秒）.
+     */
+    public static double measure(int warmup, int rounds, Callable<?> task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = task.call();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink = task.call();
+        }
+        return (double) (System.nanoTime() - start) / rounds;
+    }
+
+    /**
+     * 多次 GC 后的已用堆内存.
+     */
+    public static long usedHeapAfterGc() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * task 的结果在 GC 后仍占用的堆内存（字节），执行 rounds 次取中位数.
+     */
+    public static long retainedBytes(int rounds, Callable<?> task) throws Exception {
+        final long[] retained = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            sink = null;
+            final long before = usedHeapAfterGc();
+            sink = task.call();
+            retained[i] = usedHeapAfterGc() - before;
+        }
+        sink = null;
+        Arrays.sort(retained);
+        return retained[rounds / 2];
+    }
+
+    public static void report(String name, String baselineName, double baselineNanos, String candidateName, double candidateNanos) {
+        System.out.printf("[benchmark] %s: %s %.3f ms, %s %.3f ms (%.2fx)%n",
+                name, baselineName, baselineNanos / 1e6, candidateName, candidateNanos / 1e6, baselineNanos / candidateNanos);
+    }
+
+    public static void reportBytes(String name, String baselineName, long baselineBytes, String candidateName, long candidateBytes) {
+        System.out.printf("[benchmark] %s: %s %.1f KB, %s %.1f KB (%.2fx)%n",
+                name, baselineName, baselineBytes / 1024.0, candidateName, candidateBytes / 1024.0, (double) baselineBytes / candidateBytes);
+    }
+
+}
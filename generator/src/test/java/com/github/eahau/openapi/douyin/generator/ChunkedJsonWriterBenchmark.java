@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * 顺序写入与 {@link ChunkedJsonWriter} 分块并行写入的耗时对比，使用 {@link ChunkedJsonWriterTest#SPECS}.
+ */
+public class ChunkedJsonWriterBenchmark {
+
+    @Test
+    public void sequentialVsChunked() throws Exception {
+        Benchmarks.assumeEnabled();
+
+        for (final File spec : ChunkedJsonWriterTest.SPECS) {
+            final OpenAPI openAPI = ChunkedJsonWriterTest.read(spec);
+            assertArrayEquals(spec.getPath(), ChunkedJsonWriterTest.sequential(openAPI), ChunkedJsonWriterTest.chunked(openAPI));
+
+            final double sequential = Benchmarks.measure(20, 50, () -> ChunkedJsonWriterTest.sequential(openAPI).length);
+            final double chunked = Benchmarks.measure(20, 50, () -> ChunkedJsonWriterTest.chunked(openAPI).length);
+
+            Benchmarks.report(spec.getPath() + " (" + Runtime.getRuntime().availableProcessors() + " cpus)",
+                    "sequential", sequential, "chunked", chunked);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.google.common.collect.ImmutableList;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ChunkedJsonWriter} 的输出与 {@link Json#pretty(Object)} 按 UTF-8 编码后的字节完全相同.
+ */
+public class ChunkedJsonWriterTest {
+
+    /**
+     * 已生成的各模块 openapi.json.
+     */
+    static final List<File> SPECS = ImmutableList.of(
+            new File("../dop/src/main/resources/openapi.json"),
+            new File("../local-life/src/main/resources/openapi.json"),
+            new File("../mini-app/src/main/resources/openapi.json")
+    );
+
+    static OpenAPI read(File file) throws IOException {
+        assertTrue(file.getAbsolutePath(), file.isFile());
+        return Json.mapper().readValue(file, OpenAPI.class);
+    }
+
+    static byte[] sequential(OpenAPI openAPI) {
+        return Json.pretty(openAPI).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] chunked(OpenAPI openAPI) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = OpenApiWriter.newWriter(out)) {
+            ChunkedJsonWriter.write(openAPI, writer);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void sameAsSequential() throws IOException {
+        for (final File spec : SPECS) {
+            final OpenAPI openAPI = read(spec);
+            assertArrayEquals(spec.getPath(), sequential(openAPI), chunked(openAPI));
+        }
+    }
+
+    /**
+     * 分块中的代理对（emoji）不被转义；同一 schema 出现在请求体中时层级不同，照常序列化.
+     */
+    @Test
+    public void nonBmpCharacters() throws IOException {
+        final OpenAPI openAPI = OpenApiWriterTest.nonBmp();
+        openAPI.getPaths().get("/user/info").getPost().requestBody(new RequestBody().content(new Content()
+                .addMediaType("application/json", new MediaType().schema(openAPI.getComponents().getSchemas().get("User")))));
+
+        final byte[] bytes = chunked(openAPI);
+
+        assertArrayEquals(sequential(openAPI), bytes);
+        assertEquals(2, StringUtils.countMatches(new String(bytes, StandardCharsets.UTF_8), "Nickname 🚞 昵称"));
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * mini-app 全部字段在延迟创建子字段列表、intern 字符串前后保留的堆内存对比.
+ * <p>
+ * 字段由已生成的 mini-app openapi.json 中各 schema 的 properties 还原（名称、类型、描述及层级），
+ * 与解析文档得到的 {@link DocField} 一一对应；旧实现为每个字段创建 LinkedList 和 HashMap，且不做 intern.
+ */
+public class DocFieldHeapBenchmark {
+
+    static final File SPEC = new File("../mini-app/src/main/resources/openapi.json");
+
+    /**
+     * 还原为 {@link DocField} 的 json，每个 properties 对应一组字段.
+     */
+    static JsonArray corpus() throws Exception {
+        assertTrue(SPEC.getAbsolutePath(), SPEC.isFile());
+        final JsonElement spec = JsonParser.parseString(FileUtils.readFileToString(SPEC, StandardCharsets.UTF_8));
+
+        final JsonArray corpus = new JsonArray();
+        collect(spec, corpus);
+        return corpus;
+    }
+
+    private static void collect(JsonElement element, JsonArray corpus) {
+        if (element.isJsonArray()) {
+            element.getAsJsonArray().forEach(it -> collect(it, corpus));
+        } else if (element.isJsonObject()) {
+            for (final Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                if (entry.getKey().equals("properties") && entry.getValue().isJsonObject()) {
+                    corpus.add(fields(entry.getValue().getAsJsonObject()));
+                } else {
+                    collect(entry.getValue(), corpus);
+                }
+            }
+        }
+    }
+
+    private static JsonArray fields(JsonObject properties) {
+        final JsonArray fields = new JsonArray();
+        for (final Map.Entry<String, JsonElement> entry : properties.entrySet()) {
+            JsonObject schema = entry.getValue().getAsJsonObject();
+            String prefix = "";
+            while (schema.has("items")) {
+                prefix += "[]";
+                schema = schema.getAsJsonObject("items");
+            }
+
+            final JsonObject field = new JsonObject();
+            field.addProperty("name", entry.getKey());
+            field.addProperty("type", prefix + (schema.has("type") ? schema.get("type").getAsString() : "struct"));
+            if (schema.has("description")) {
+                field.addProperty("desc", schema.get("description").getAsString());
+            }
+            if (schema.has("properties")) {
+                field.add("children", fields(schema.getAsJsonObject("properties")));
+            }
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    /**
+     * 每次反序列化得到新的字符串实例，与解析文档时一致.
+     */
+    static List<DocField[]> read(JsonArray corpus, Consumer<DocField> consumer) {
+        final List<DocField[]> result = Lists.newArrayListWithCapacity(corpus.size());
+        for (final JsonElement fields : corpus) {
+            final DocField[] docFields = Misc.GSON.fromJson(fields, DocField[].class);
+            for (final DocField docField : docFields) {
+                walk(docField, consumer);
+            }
+            result.add(docFields);
+        }
+        return result;
+    }
+
+    private static void walk(DocField docField, Consumer<DocField> consumer) {
+        final List<DocField> children = docField.getDeclaredChildren();
+        consumer.accept(docField);
+        if (children != null) {
+            children.forEach(it -> walk(it, consumer));
+        }
+    }
+
+    @Test
+    public void miniAppRetainedHeap() throws Exception {
+        Benchmarks.assumeEnabled();
+
+        final JsonArray corpus = corpus();
+        final int[] count = {0};
+        read(corpus, it -> count[0]++);
+
+        final long eager = Benchmarks.retainedBytes(5, () -> read(corpus, it -> {
+            final List<DocField> children = it.getDeclaredChildren();
+            it.setChildren(children == null ? Lists.newLinkedList() : Lists.newLinkedList(children));
+            it.setOtherSchemas(Maps.newHashMap());
+        }));
+        final long lazy = Benchmarks.retainedBytes(5, () -> read(corpus, DocField::intern));
+
+        Benchmarks.reportBytes("mini-app " + count[0] + " fields", "eager", eager, "lazy + intern", lazy);
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DocFieldTest {
+
+    static DocField field(String name, String type) {
+        final DocField docField = new DocField();
+        docField.setName(name);
+        docField.setType(type);
+        return docField;
+    }
+
+    @Test
+    public void childrenAreCreatedLazily() {
+        final DocField docField = field("open_id", "string");
+
+        assertFalse(docField.hasChildren());
+        assertEquals(Collections.emptyList(), docField.flatChildren());
+        assertNull(docField.getDeclaredChildren());
+        assertNull(docField.getOtherSchemas());
+
+        final List<DocField> children = docField.getChildren();
+        assertSame(children, docField.getDeclaredChildren());
+        assertFalse(docField.hasChildren());
+
+        final DocField child = field("id", "int64");
+        docField.addChild(child);
+        assertSame(children, docField.getChildren());
+        assertTrue(docField.hasChildren());
+        assertEquals(Collections.singletonList(child), docField.flatChildren());
+    }
+
+    @Test
+    public void addChildSharesTheList() {
+        final DocField docField = field("data", "struct");
+        final DocField other = field("data", "struct");
+        other.setChildren(docField.getChildren());
+
+        docField.addChild(field("id", "int64"));
+
+        assertTrue(other.hasChildren());
+        assertSame(docField.getChildren(), other.getChildren());
+    }
+
+    @Test
+    public void otherSchemasAreCreatedLazily() {
+        final DocField docField = field("data", "struct");
+        final List<DocField> schema = Collections.singletonList(field("id", "int64"));
+
+        docField.addSchema(schema);
+
+        assertEquals(Collections.singletonMap("data1", schema), docField.getOtherSchemas());
+    }
+
+    @Test
+    public void settersIntern() {
+        final DocField a = field(new String("open_id"), new String("string"));
+        final DocField b = field(new String("open_id"), new String("string"));
+        assertSame(a.getName(), b.getName());
+        assertSame(a.getType(), b.getType());
+
+        a.setDesc(new String("用户 open_id"));
+        b.setDesc(new String("用户 open_id"));
+        assertSame(a.getDesc(), b.getDesc());
+
+        final String longDesc = StringUtils.repeat("长", DocField.INTERN_DESC_MAX_LENGTH + 1);
+        a.setDesc(new String(longDesc));
+        b.setDesc(new String(longDesc));
+        assertEquals(a.getDesc(), b.getDesc());
+        assertNotSame(a.getDesc(), b.getDesc());
+    }
+
+    /**
+     * gson 反序列化不经过 setter，{@link DocField#intern()} 补上，包括子字段.
+     */
+    @Test
+    public void internAfterGson() {
+        final String json = "[{\"name\":\"data\",\"type\":\"struct\",\"desc\":\"数据\",\"children\":[{\"key\":\"open_id\",\"type\":\"string\"}]}]";
+        final DocField[] a = Misc.GSON.fromJson(json, DocField[].class);
+        final DocField[] b = Misc.GSON.fromJson(json, DocField[].class);
+        assertNotSame(a[0].getName(), b[0].getName());
+
+        a[0].intern();
+        b[0].intern();
+
+        assertSame(a[0].getName(), b[0].getName());
+        assertSame(a[0].getType(), b[0].getType());
+        assertSame(a[0].getDesc(), b[0].getDesc());
+        assertSame(a[0].getChildren().get(0).getName(), b[0].getChildren().get(0).getName());
+        assertSame(DocField.intern(new String("open_id")), a[0].getChildren().get(0).getName());
+    }
+
+    /**
+     * 弱引用的 interner 不会阻止不再使用的字符串被回收.
+     */
+    @Test
+    public void internerDoesNotRetain() throws InterruptedException {
+        DocField docField = field(new String("unique_" + System.nanoTime()), "string");
+        final WeakReference<String> name = new WeakReference<>(docField.getName());
+        docField = null;
+
+        for (int i = 0; i < 20 && name.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(name.get());
+    }
+
+    /**
+     * data.list[0].id.
+     */
+    static DocField[] path() {
+        final DocField data = field("data", "struct");
+        final DocField list = field("list", "[]struct");
+        final DocField id = field("id", "int64");
+        list.setParent(data);
+        id.setParent(list);
+        return new DocField[]{data, list, id};
+    }
+
+    @Test
+    public void pathIsMemoized() {
+        final DocField id = path()[2];
+
+        assertEquals("data.list[0].id", id.getFullName());
+        assertSame(id.getParentName(), id.getParentName());
+    }
+
+    @Test
+    public void renameParentAfterRead() {
+        final DocField[] path = path();
+        final DocField id = path[2];
+        assertEquals("data.list[0].id", id.getFullName());
+
+        path[0].setName("result");
+        assertEquals("result.list[0].id", id.getFullName());
+
+        path[1].setName("items");
+        assertEquals("result.items[0]", path[1].getFullName());
+        assertEquals("result.items[0].id", id.getFullName());
+
+        id.setName("open_id");
+        assertEquals("result.items[0].open_id", id.getFullName());
+    }
+
+    @Test
+    public void reparentAfterRead() {
+        final DocField[] path = path();
+        final DocField id = path[2];
+        assertEquals("data.list[0].id", id.getFullName());
+        assertSame(path[1], id.getParent());
+
+        final DocField extra = field("extra", "struct");
+        path[1].setParent(extra);
+        assertEquals("extra.list[0].id", id.getFullName());
+
+        id.setParent(path[0]);
+        assertSame(path[0], id.getParent());
+        assertEquals("data.id", id.getFullName());
+
+        id.setParent(null);
+        assertTrue(id.isRootObject());
+        assertEquals(".id", id.getFullName());
+    }
+
+    @Test
+    public void changeTypeAfterRead() {
+        final DocField[] path = path();
+        final DocField id = path[2];
+        assertEquals("data.list[0].id", id.getFullName());
+
+        // 不再是对象类型，跳过该级找上一级对象
+        path[1].setType("string");
+        assertSame(path[0], id.getParent());
+        assertEquals("data.id", id.getFullName());
+
+        path[1].setType("struct");
+        assertEquals("data.list.id", id.getFullName());
+
+        path[0].setType("[]struct");
+        assertEquals("data[0].list.id", id.getFullName());
+    }
+
+    /**
+     * 未设置类型时由默认值推断，推断结果参与路径.
+     */
+    @Test
+    public void inferredTypeAfterRead() {
+        final DocField data = new DocField();
+        data.setName("data");
+        final DocField id = field("id", "int64");
+        id.setParent(data);
+        assertEquals("data.id", id.getFullName());
+
+        data.setDefV("1");
+        data.setType(null);
+        assertTrue(id.isRootObject());
+        assertEquals(".id", id.getFullName());
+    }
+
+    /**
+     * 修改无关字段不影响已缓存的路径.
+     */
+    @Test
+    public void unrelatedModification() {
+        final DocField id = path()[2];
+        final String parentName = id.getParentName();
+
+        path()[0].setName("other");
+
+        assertSame(parentName, id.getParentName());
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.spi.json.GsonJsonProvider;
+import com.jayway.jsonpath.spi.json.JsonSmartJsonProvider;
+import com.jayway.jsonpath.spi.mapper.GsonMappingProvider;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ExamplePaths#contains} 与逐个路径调用 JsonPath 读取的旧实现结果一致.
+ */
+public class ExamplePathsTest {
+
+    /**
+     * 旧实现：gson 解析失败时使用 json-smart，值为 null 或空列表视为不存在.
+     */
+    static final class LegacyReader {
+
+        final DocumentContext documentContext;
+
+        LegacyReader(String json) {
+            DocumentContext documentContext;
+            try {
+                documentContext = JsonPath.using(Configuration.builder()
+                        .jsonProvider(new GsonJsonProvider(Misc.GSON))
+                        .mappingProvider(new GsonMappingProvider(Misc.GSON))
+                        .options(Option.SUPPRESS_EXCEPTIONS)
+                        .build()).parse(json);
+            } catch (RuntimeException ignored) {
+                documentContext = JsonPath.using(Configuration.builder()
+                        .jsonProvider(new JsonSmartJsonProvider())
+                        .options(Option.SUPPRESS_EXCEPTIONS)
+                        .build()).parse(json);
+            }
+            this.documentContext = documentContext;
+        }
+
+        boolean contains(String path) {
+            final Object value = documentContext.read(path);
+            if (value instanceof List) {
+                return !((List<?>) value).isEmpty();
+            }
+            return value != null;
+        }
+    }
+
+    static Object legacy(String json, String path) {
+        try {
+            return new LegacyReader(json).contains(path);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    static Object actual(String json, String path) {
+        try {
+            return ExamplePaths.of(json).contains(path);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    static void assertSameAsLegacy(String json, String... paths) {
+        for (final String path : paths) {
+            assertEquals(json + " " + path, legacy(json, path), actual(json, path));
+        }
+    }
+
+    @Test
+    public void arraysOfObjects() {
+        final String json = "{\"data\":{\"list\":[{\"id\":1,\"tags\":[{\"name\":\"a\"}]},{\"other\":2}],"
+                + "\"empty\":[],\"matrix\":[[{\"x\":1}]],\"nums\":[1,2]}}";
+        final ExamplePaths paths = ExamplePaths.of(json);
+
+        assertTrue(paths.contains("data.list[0].id"));
+        assertTrue(paths.contains("data.list[0].tags[0].name"));
+        // 只取数组的第一个元素
+        assertFalse(paths.contains("data.list[0].other"));
+        assertTrue(paths.contains("data.empty"));
+        assertFalse(paths.contains("data.empty[0]"));
+
+        assertSameAsLegacy(json, "data", "data.list", "data.list[0]", "data.list[0].id", "data.list[0].other",
+                "data.list[0].tags", "data.list[0].tags[0]", "data.list[0].tags[0].name", "data.list.id",
+                "data.empty", "data.empty[0]", "data.matrix[0]", "data.matrix[0][0]", "data.matrix[0][0].x",
+                "data.nums", "data.nums[0]", "data.nums[0].x", "data.id", "list[0].id");
+    }
+
+    @Test
+    public void nullsAndPrimitives() {
+        assertSameAsLegacy("{\"a\":null,\"b\":{\"c\":null},\"d\":\"x\",\"e\":0,\"f\":false}",
+                "a", "a.x", "b", "b.c", "b.c.d", "d", "d.x", "e", "f", "g");
+        assertSameAsLegacy("[{\"a\":1}]", "a", "[0]", "[0].a", "$[0].a");
+        assertSameAsLegacy("\"text\"", "a");
+    }
+
+    @Test
+    public void keysWithDots() {
+        final String json = "{\"a.b\":1,\"a\":{\"c\":2},\"x[0]\":3,\"data\":{\"open.id\":{\"v\":1},\"名称\":4,\"k-1\":5}}";
+        final ExamplePaths paths = ExamplePaths.of(json);
+
+        assertFalse(paths.contains("a.b"));
+        assertTrue(paths.contains("a.c"));
+        assertFalse(paths.contains("x[0]"));
+
+        assertSameAsLegacy(json, "a.b", "a", "a.c", "x[0]", "x", "data.open.id", "data.open.id.v", "data.open",
+                "data.名称", "data.k-1", "['a.b']", "data['open.id'].v");
+    }
+
+    /**
+     * gson 无法解析、交给 json-smart 的样例，以及两者都无法解析的样例.
+     */
+    @Test
+    public void fallback() {
+        for (final String json : Arrays.asList(
+                "{\"a\":1,}",
+                "{\"a\":{\"b\":[{\"c\":1}]}}}",
+                "{\"a\":\"x\\q\",\"b\":{\"c\":null}}",
+                "{\"a\":[{\"b\":1}]}x",
+                "{\"a\":1",
+                "",
+                "  ",
+                "null"
+        )) {
+            assertSameAsLegacy(json, "a", "a.b", "a.b[0]", "a.b[0].c", "b.c", "c", ".c", "..b");
+        }
+    }
+
+    /**
+     * 字段名为空时以 . 开头，交给 JsonPath 深度扫描.
+     */
+    @Test
+    public void deepScan() {
+        final String json = "{\"data\":{\"list\":[{\"id\":1}],\"user\":{\"id\":2,\"name\":null}}}";
+        assertSameAsLegacy(json, ".id", ".name", ".list", ".user.id", ".missing", "..id", "$.data.user.id", "data.*");
+    }
+
+    static final String[] KEYS = {"data", "list", "id", "a.b", "x[0]", "k-1", "名称", "_"};
+
+    static Object randomValue(Random random, int depth) {
+        switch (depth <= 0 ? random.nextInt(4) : random.nextInt(7)) {
+            case 0:
+                return null;
+            case 1:
+                return random.nextInt(3);
+            case 2:
+                return "s";
+            case 3:
+                return Lists.newArrayList();
+            case 4:
+            case 5: {
+                final Map<String, Object> object = Maps.newLinkedHashMap();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    object.put(KEYS[random.nextInt(KEYS.length)], randomValue(random, depth - 1));
+                }
+                return object;
+            }
+            default: {
+                final List<Object> array = Lists.newArrayList();
+                for (int i = random.nextInt(3); i > 0; i--) {
+                    array.add(randomValue(random, depth - 1));
+                }
+                return array;
+            }
+        }
+    }
+
+    static String randomPath(Random random) {
+        final StringBuilder path = new StringBuilder(random.nextInt(8) == 0 ? "." : "");
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            path.append(KEYS[random.nextInt(KEYS.length)]);
+            if (random.nextInt(3) == 0) {
+                path.append("[0]");
+            }
+            if (i > 0) {
+                path.append('.');
+            }
+        }
+        return path.toString();
+    }
+
+    @Test
+    public void randomExamples() {
+        final Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            final String json = Misc.GSON.toJson(randomValue(random, 4));
+            final LegacyReader legacy = new LegacyReader(json);
+            final ExamplePaths paths = ExamplePaths.of(json);
+            for (int p = 0; p < 50; p++) {
+                final String path = randomPath(random);
+                assertEquals(json + " " + path, legacy.contains(path), paths.contains(path));
+            }
+        }
+    }
+
+}
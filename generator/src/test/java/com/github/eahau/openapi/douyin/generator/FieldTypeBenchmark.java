@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.google.common.collect.Lists;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 每次调用时解析类型字符串与 {@link FieldType} 缓存的耗时对比.
+ * <p>
+ * 类型字符串由 {@link ChunkedJsonWriterTest#SPECS} 中每个字段的 schema 还原为文档中的写法（如 []int64、map&lt;string,string&gt;、struct），
+ * 按字段出现的次数重复；每个字段执行一次 {@link DocField#toSchema} 会用到的各项判断.
+ */
+public class FieldTypeBenchmark {
+
+    static List<String> corpus() throws Exception {
+        final List<String> types = Lists.newArrayList();
+        for (final File spec : ChunkedJsonWriterTest.SPECS) {
+            collect(JsonParser.parseString(FileUtils.readFileToString(spec, StandardCharsets.UTF_8)), types);
+        }
+        return types;
+    }
+
+    private static void collect(JsonElement element, List<String> types) {
+        if (element.isJsonArray()) {
+            element.getAsJsonArray().forEach(it -> collect(it, types));
+        } else if (element.isJsonObject()) {
+            for (final Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                if (entry.getKey().equals("properties") && entry.getValue().isJsonObject()) {
+                    for (final Map.Entry<String, JsonElement> property : entry.getValue().getAsJsonObject().entrySet()) {
+                        types.add(docType(property.getValue().getAsJsonObject()));
+                    }
+                }
+                collect(entry.getValue(), types);
+            }
+        }
+    }
+
+    static String docType(JsonObject schema) {
+        if (schema.has("items")) {
+            return "[]" + docType(schema.getAsJsonObject("items"));
+        }
+        if (schema.has("additionalProperties") && schema.get("additionalProperties").isJsonObject()) {
+            return "map<string," + docType(schema.getAsJsonObject("additionalProperties")) + ">";
+        }
+        final String type = schema.has("type") ? schema.get("type").getAsString() : "object";
+        switch (type) {
+            case "integer":
+                return schema.has("format") ? schema.get("format").getAsString() : "int";
+            case "number":
+                return "double";
+            case "boolean":
+                return "bool";
+            case "object":
+                return "struct";
+            default:
+                return type;
+        }
+    }
+
+    @Test
+    public void parseOnceVsEveryCall() throws Exception {
+        Benchmarks.assumeEnabled();
+
+        final List<String> types = corpus();
+        for (final String type : types) {
+            assertEquals(type, FieldTypeTest.Legacy.describe(type), FieldTypeTest.describe(FieldType.of(type)));
+        }
+
+        final double everyCall = Benchmarks.measure(20, 100, () -> {
+            int hash = 0;
+            for (final String type : types) {
+                hash += FieldTypeTest.Legacy.describe(type).hashCode();
+            }
+            return hash;
+        });
+        final double cached = Benchmarks.measure(20, 100, () -> {
+            int hash = 0;
+            for (final String type : types) {
+                hash += FieldTypeTest.describe(FieldType.of(type)).hashCode();
+            }
+            return hash;
+        });
+
+        Benchmarks.report("field types x" + types.size() + " (" + types.stream().distinct().count() + " distinct)",
+                "every call", everyCall, "FieldType", cached);
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.github.eahau.openapi.douyin.generator.FieldType.Primitive;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FieldType} 与 {@link DocField} 原先每次调用时对类型字符串的判断一致.
+ */
+public class FieldTypeTest {
+
+    /**
+     * 原 {@link DocField} 中的判断.
+     */
+    static final class Legacy {
+
+        static boolean isArrayType(String type) {
+            return StringUtils.containsAnyIgnoreCase(type, "[]", "list", "array");
+        }
+
+        static boolean isMapType(String type) {
+            return StringUtils.startsWithIgnoreCase(type, "map");
+        }
+
+        static boolean isObjectType(String type) {
+            return StringUtils.equalsAny(type, "object", "struct", "strcut", "Json Object");
+        }
+
+        static String getLastParamType(String type) {
+            final StringTokenizer tokenizer = new StringTokenizer(type, "[]<>(),");
+
+            String paramType = "object";
+            while (tokenizer.hasMoreTokens()) {
+                final String token = tokenizer.nextToken();
+                if (!StringUtils.equalsAnyIgnoreCase(token, "list", "array")) {
+                    paramType = token;
+                }
+            }
+
+            return paramType;
+        }
+
+        /**
+         * toPrimitiveSchemaOrNull 返回的 schema 对应的基本类型.
+         */
+        static Primitive toPrimitive(String type) {
+            if (type.contains("bool")) {
+                return Primitive.BOOL;
+            }
+            if (StringUtils.equalsAnyIgnoreCase(type, "sting", "string")) {
+                return Primitive.STRING;
+            }
+            if (StringUtils.containsAny(type, "int", "i32")) {
+                return Primitive.INT32;
+            }
+            if (StringUtils.containsAny(type, "i64", "int64", "long")) {
+                return Primitive.INT64;
+            }
+            if (StringUtils.containsAny(type, "float", "double", "number")) {
+                return Primitive.NUMBER;
+            }
+            return null;
+        }
+
+        static List<Object> describe(String type) {
+            final String lastParamType = getLastParamType(type);
+            return Arrays.asList(isArrayType(type), isMapType(type), isObjectType(type), toPrimitive(type),
+                    lastParamType, isObjectType(lastParamType), toPrimitive(lastParamType));
+        }
+    }
+
+    static List<Object> describe(FieldType fieldType) {
+        final FieldType lastParam = fieldType.getLastParam();
+        return Arrays.asList(fieldType.isArrayType(), fieldType.isMapType(), fieldType.isObjectType(), fieldType.getPrimitive(),
+                lastParam.getRaw(), lastParam.isObjectType(), lastParam.getPrimitive());
+    }
+
+    static void assertSameAsLegacy(String type) {
+        assertEquals(type, Legacy.describe(type), describe(FieldType.of(type)));
+    }
+
+    @Test
+    public void array() {
+        final FieldType type = FieldType.of("[]int64");
+        assertTrue(type.isArrayType());
+        assertFalse(type.isMapType());
+        assertFalse(type.isObjectType());
+        assertEquals("int64", type.getLastParamType());
+        // int64 先匹配到 int
+        assertSame(Primitive.INT32, type.getLastParam().getPrimitive());
+
+        final FieldType nested = FieldType.of("[][]Foo");
+        assertTrue(nested.isArrayType());
+        assertEquals("Foo", nested.getLastParamType());
+        assertNull(nested.getLastParam().getPrimitive());
+        assertFalse(nested.getLastParam().isObjectType());
+
+        assertSameAsLegacy("[]int64");
+        assertSameAsLegacy("[][]Foo");
+        assertSameAsLegacy("[]string");
+        assertSameAsLegacy("[]struct");
+    }
+
+    @Test
+    public void list() {
+        final FieldType type = FieldType.of("list<struct>");
+        assertTrue(type.isArrayType());
+        assertEquals("struct", type.getLastParamType());
+        assertTrue(type.getLastParam().isObjectType());
+
+        assertEquals("i64", FieldType.of("List<list<i64>>").getLastParamType());
+        assertEquals("object", FieldType.of("array").getLastParamType());
+
+        assertSameAsLegacy("list<struct>");
+        assertSameAsLegacy("List<list<i64>>");
+        assertSameAsLegacy("array");
+        assertSameAsLegacy("Array(string)");
+    }
+
+    @Test
+    public void map() {
+        final FieldType type = FieldType.of("map<string,[]Foo>");
+        assertTrue(type.isMapType());
+        // 包含 []，与原先一致也视为数组
+        assertTrue(type.isArrayType());
+        assertEquals("Foo", type.getLastParamType());
+
+        assertSame(Primitive.INT32, FieldType.of("map<string,int>").getLastParam().getPrimitive());
+        assertEquals("string", FieldType.of("Map<string, string>").getLastParamType().trim());
+
+        assertSameAsLegacy("map<string,[]Foo>");
+        assertSameAsLegacy("map<string,int>");
+        assertSameAsLegacy("Map<string, string>");
+        assertSameAsLegacy("map[string]string");
+    }
+
+    @Test
+    public void objects() {
+        for (final String raw : Arrays.asList("Json Object", "object", "struct", "strcut")) {
+            final FieldType type = FieldType.of(raw);
+            assertTrue(raw, type.isObjectType());
+            assertFalse(raw, type.isArrayType());
+            assertNull(raw, type.getPrimitive());
+            assertEquals(raw, raw, type.getLastParamType());
+            assertSameAsLegacy(raw);
+        }
+        assertFalse(FieldType.of("JSON object").isObjectType());
+        assertSameAsLegacy("JSON object");
+    }
+
+    @Test
+    public void primitives() {
+        assertSame(Primitive.BOOL, FieldType.of("boolean").getPrimitive());
+        assertSame(Primitive.STRING, FieldType.of("String").getPrimitive());
+        assertSame(Primitive.STRING, FieldType.of("sting").getPrimitive());
+        assertSame(Primitive.INT32, FieldType.of("int64").getPrimitive());
+        assertSame(Primitive.INT64, FieldType.of("i64").getPrimitive());
+        assertSame(Primitive.INT64, FieldType.of("long").getPrimitive());
+        assertSame(Primitive.NUMBER, FieldType.of("double").getPrimitive());
+        assertNull(FieldType.of("string(1)").getPrimitive());
+
+        for (final String raw : Arrays.asList("bool", "boolean", "String", "sting", "int", "int32", "int64", "i32", "i64",
+                "long", "Long", "float", "double", "number", "string(1)", "binary", "form-data")) {
+            assertSameAsLegacy(raw);
+        }
+    }
+
+    @Test
+    public void malformed() {
+        for (final String raw : Arrays.asList("", " ", "[]", "[", "]", "<>", "list<", "map<", "map<string,", "map<,>",
+                "list<>", "[]]", ",", "()", "list<list<>>", "[]<string", "map<string,[]>", "a,b", "Foo>", "\t")) {
+            final FieldType type = FieldType.of(raw);
+            assertSame(raw, type, FieldType.of(raw));
+            assertSameAsLegacy(raw);
+        }
+        assertEquals("object", FieldType.of("").getLastParamType());
+        assertEquals("object", FieldType.of("[]").getLastParamType());
+        assertEquals("object", FieldType.of("list<>").getLastParamType());
+        assertEquals("string", FieldType.of("map<string,[]>").getLastParamType());
+    }
+
+    @Test
+    public void random() {
+        final String[] parts = {"[]", "list", "List", "array", "map", "<", ">", "(", ")", ",", " ", "string", "int", "i64",
+                "int64", "long", "bool", "double", "struct", "object", "Json Object", "Foo", "strcut", "sting"};
+        final Random random = new Random(18);
+        for (int i = 0; i < 20000; i++) {
+            final StringBuilder raw = new StringBuilder();
+            for (int n = random.nextInt(5); n >= 0; n--) {
+                raw.append(parts[random.nextInt(parts.length)]);
+            }
+            assertSameAsLegacy(raw.toString());
+        }
+    }
+
+}
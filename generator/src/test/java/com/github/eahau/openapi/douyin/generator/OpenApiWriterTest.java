@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.media.IntegerSchema;
+import io.swagger.v3.oas.models.media.ObjectSchema;
+import io.swagger.v3.oas.models.media.StringSchema;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link OpenApiWriter} 写出的文件与 {@link Json#pretty(Object)} 的字符串按 UTF-8 编码后完全相同.
+ */
+public class OpenApiWriterTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 描述中含有代理对（emoji）及其他非 ASCII 字符.
+     */
+    static OpenAPI nonBmp() {
+        return new OpenAPI()
+                .info(new Info().title("用户 🚞").version("1.0"))
+                .paths(new Paths().addPathItem("/user/info", new PathItem()
+                        .post(new Operation().operationId("userInfo").summary("获取用户信息 😀"))))
+                .components(new Components()
+                        .addSchemas("User", new ObjectSchema()
+                                .addProperty("nickname", new StringSchema().description("Nickname 🚞 昵称").example("🚞"))
+                                .addProperty("age", new IntegerSchema()._default(18))
+                                .addProperty("raw", new StringSchema().description("🚀 \t\"quoted\" \\  "))));
+    }
+
+    byte[] write(Object value) throws IOException {
+        final File file = new File(folder.getRoot(), "openapi.json");
+        OpenApiWriter.write(value, file);
+        return FileUtils.readFileToByteArray(file);
+    }
+
+    @Test
+    public void nonBmpCharacters() throws IOException {
+        final OpenAPI openAPI = nonBmp();
+        final byte[] bytes = write(openAPI);
+
+        assertArrayEquals(Json.pretty(openAPI).getBytes(StandardCharsets.UTF_8), bytes);
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("Nickname 🚞 昵称"));
+    }
+
+    @Test
+    public void jsonNode() throws IOException {
+        final Object tree = Json.mapper().valueToTree(nonBmp());
+
+        assertArrayEquals(Json.pretty(tree).getBytes(StandardCharsets.UTF_8), write(tree));
+    }
+
+    /**
+     * 已生成的各模块 openapi.json，mini-app 中含有 emoji.
+     */
+    @Test
+    public void specs() throws IOException {
+        for (final File spec : ChunkedJsonWriterTest.SPECS) {
+            final OpenAPI openAPI = ChunkedJsonWriterTest.read(spec);
+
+            assertArrayEquals(spec.getPath(), Json.pretty(openAPI).getBytes(StandardCharsets.UTF_8), write(openAPI));
+        }
+    }
+
+    @Test
+    public void minify() throws IOException {
+        final OpenAPI openAPI = nonBmp();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        OpenApiWriter.minify(new ByteArrayInputStream(write(openAPI)), OpenApiWriter.newWriter(out));
+
+        assertEquals(Json.mapper().writeValueAsString(openAPI), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 多个线程同时添加时不丢失元素，且每次读取的结果相同.
+ */
+public class OrderedCollectorTest {
+
+    static final int THREADS = 8;
+
+    static final int ADDS_PER_THREAD = 5000;
+
+    static final int RUNS = 20;
+
+    /**
+     * 所有线程同时开始，各自按打乱的顺序添加交错分配的序号.
+     */
+    static List<String> collect(long seed) throws Exception {
+        final OrderedCollector<String> collector = new OrderedCollector<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<?>> futures = Lists.newArrayList();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                final List<Integer> orders = IntStream.range(0, ADDS_PER_THREAD)
+                        .mapToObj(i -> i * THREADS + thread)
+                        .collect(Collectors.toList());
+                Collections.shuffle(orders, new Random(seed + thread));
+
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (final int order : orders) {
+                        collector.add(order, "doc-" + order);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return collector.toList();
+    }
+
+    @Test
+    public void concurrentAdds() throws Exception {
+        final List<String> expected = IntStream.range(0, THREADS * ADDS_PER_THREAD)
+                .mapToObj(i -> "doc-" + i)
+                .collect(Collectors.toList());
+
+        for (int run = 0; run < RUNS; run++) {
+            assertEquals("run " + run, expected, collect(run));
+        }
+    }
+
+    /**
+     * 同一批线程池线程多次使用不同的收集器，互不影响.
+     */
+    @Test
+    public void reusedThreads() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int run = 0; run < RUNS; run++) {
+                final OrderedCollector<Integer> collector = new OrderedCollector<>();
+                final List<Future<?>> futures = Lists.newArrayList();
+                for (int i = 0; i < 1000; i++) {
+                    final int order = 999 - i;
+                    futures.add(executor.submit(() -> collector.add(order, order)));
+                }
+                for (final Future<?> future : futures) {
+                    future.get();
+                }
+                assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), collector.toList());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.github.eahau.openapi.douyin.generator.parser.HeadingDispatcher.Match;
+import com.google.common.collect.Lists;
+import com.vladsch.flexmark.ast.Heading;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link HeadingDispatcher} 与逐个处理器判断 equals/containsAny 及 level 的结果一致.
+ */
+public class HeadingDispatcherTest {
+
+    /**
+     * 逐个判断的处理器定义.
+     */
+    @AllArgsConstructor
+    static final class Predicate {
+
+        final int level;
+
+        final Match match;
+
+        final String[] keywords;
+
+        boolean test(Heading heading, String text) {
+            if (text == null || (level != HeadingDispatcher.ANY_LEVEL && level != heading.getLevel())) {
+                return false;
+            }
+            return match == Match.EQUALS ? StringUtils.equalsAny(text, keywords) : StringUtils.containsAny(text, keywords);
+        }
+    }
+
+    /**
+     * 与 {@link HtmlParser#SECTIONS} 相同的定义.
+     */
+    static final List<Predicate> HTML_PARSER_SECTIONS = Arrays.asList(
+            new Predicate(2, Match.EQUALS, new String[]{"接口说明"}),
+            new Predicate(HeadingDispatcher.ANY_LEVEL, Match.EQUALS, new String[]{"请求地址", "基本信息"}),
+            new Predicate(2, Match.EQUALS, new String[]{"请求头"}),
+            new Predicate(2, Match.EQUALS, new String[]{"请求参数"}),
+            new Predicate(2, Match.CONTAINS, new String[]{"响应参数", "返回值"}),
+            new Predicate(3, Match.CONTAINS, new String[]{"响应样例", "正常"}),
+            new Predicate(3, Match.CONTAINS, new String[]{"异常", "失败", "错误"})
+    );
+
+    static HeadingDispatcher<List<Integer>> compile(List<Predicate> predicates) {
+        final HeadingDispatcher.Builder<List<Integer>> builder = HeadingDispatcher.builder();
+        for (int i = 0; i < predicates.size(); i++) {
+            final int section = i;
+            final Predicate predicate = predicates.get(i);
+            builder.on(predicate.level, predicate.match, (matched, heading) -> matched.add(section), predicate.keywords);
+        }
+        return builder.build();
+    }
+
+    static Heading heading(int level) {
+        final Heading heading = new Heading();
+        heading.setLevel(level);
+        return heading;
+    }
+
+    static List<Integer> expected(List<Predicate> predicates, Heading heading, String text) {
+        final List<Integer> matched = Lists.newArrayList();
+        for (int i = 0; i < predicates.size(); i++) {
+            if (predicates.get(i).test(heading, text)) {
+                matched.add(i);
+            }
+        }
+        return matched;
+    }
+
+    static List<Integer> dispatch(HeadingDispatcher<List<Integer>> dispatcher, Heading heading, String text) {
+        final List<Integer> matched = Lists.newArrayList();
+        dispatcher.dispatch(matched, heading, text);
+        return matched;
+    }
+
+    static void assertSame(List<Predicate> predicates, HeadingDispatcher<List<Integer>> dispatcher, int level, String text) {
+        final Heading heading = heading(level);
+        assertEquals(level + " " + text, expected(predicates, heading, text), dispatch(dispatcher, heading, text));
+    }
+
+    @Test
+    public void htmlParserSections() {
+        final HeadingDispatcher<List<Integer>> dispatcher = compile(HTML_PARSER_SECTIONS);
+
+        assertEquals(Collections.singletonList(0), dispatch(dispatcher, heading(2), "接口说明"));
+        assertEquals(Collections.emptyList(), dispatch(dispatcher, heading(3), "接口说明"));
+        assertEquals(Collections.singletonList(1), dispatch(dispatcher, heading(4), "基本信息"));
+        assertEquals(Collections.emptyList(), dispatch(dispatcher, heading(2), "基本信息说明"));
+        assertEquals(Collections.singletonList(4), dispatch(dispatcher, heading(2), "响应参数说明"));
+        // 同一个 heading 交给多个处理器
+        assertEquals(Arrays.asList(5, 6), dispatch(dispatcher, heading(3), "正常/异常响应样例"));
+        assertEquals(Collections.emptyList(), dispatch(dispatcher, heading(2), null));
+        assertEquals(Collections.emptyList(), dispatch(dispatcher, heading(2), ""));
+    }
+
+    /**
+     * 随机拼接关键字片段和其他字符.
+     */
+    @Test
+    public void randomHtmlParserHeadings() {
+        final HeadingDispatcher<List<Integer>> dispatcher = compile(HTML_PARSER_SECTIONS);
+        final String[] fragments = {
+                "接口", "说明", "请求", "地址", "基本", "信息", "头", "参数", "响应", "返回值", "返回", "样例",
+                "正常", "异常", "失败", "错误", "/", " ", "Body", "说", "响", "常"
+        };
+
+        final Random random = new Random(20231017);
+        for (int i = 0; i < 100_000; i++) {
+            final StringBuilder text = new StringBuilder();
+            for (int n = random.nextInt(5); n >= 0; n--) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+            assertSame(HTML_PARSER_SECTIONS, dispatcher, 1 + random.nextInt(4), text.toString());
+        }
+    }
+
+    /**
+     * 随机生成互相重叠的关键字，检验自动机的失败指针.
+     */
+    @Test
+    public void randomOverlappingKeywords() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            final List<Predicate> predicates = Lists.newArrayList();
+            for (int p = 1 + random.nextInt(6); p > 0; p--) {
+                final String[] keywords = new String[1 + random.nextInt(3)];
+                for (int k = 0; k < keywords.length; k++) {
+                    keywords[k] = randomText(random, 1 + random.nextInt(4));
+                }
+                predicates.add(new Predicate(random.nextInt(3), random.nextBoolean() ? Match.EQUALS : Match.CONTAINS, keywords));
+            }
+
+            final HeadingDispatcher<List<Integer>> dispatcher = compile(predicates);
+            for (int i = 0; i < 500; i++) {
+                assertSame(predicates, dispatcher, 1 + random.nextInt(2), randomText(random, random.nextInt(10)));
+            }
+        }
+    }
+
+    static String randomText(Random random, int length) {
+        final StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(3)));
+        }
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.github.eahau.openapi.douyin.generator.Benchmarks;
+import org.jsoup.Jsoup;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@link HtmlTable#of(CharSequence)} 与 jsoup 构建 DOM 后提取的耗时对比，使用 {@link HtmlTableTest#FIXTURES}.
+ */
+public class HtmlTableBenchmark {
+
+    @Test
+    public void tokenizerVsJsoup() throws Exception {
+        Benchmarks.assumeEnabled();
+
+        final List<String> tables = HtmlTableTest.FIXTURES.stream()
+                .map(name -> {
+                    try {
+                        return HtmlTableTest.fixture(name);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+
+        for (final String html : tables) {
+            HtmlTableTest.assertSameAsJsoup(html);
+        }
+
+        final double jsoup = Benchmarks.measure(2000, 5000, () -> {
+            int rows = 0;
+            for (final String html : tables) {
+                rows += HtmlTable.of(Jsoup.parse(html)).getRows().size();
+            }
+            return rows;
+        });
+        final double tokenizer = Benchmarks.measure(2000, 5000, () -> {
+            int rows = 0;
+            for (final String html : tables) {
+                rows += HtmlTable.of(html).getRows().size();
+            }
+            return rows;
+        });
+
+        Benchmarks.report("html tables x" + tables.size(), "jsoup", jsoup, "tokenizer", tokenizer);
+    }
+
+}
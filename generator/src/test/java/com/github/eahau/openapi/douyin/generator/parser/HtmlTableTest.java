@@ -0,0 +1,182 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.github.eahau.openapi.douyin.generator.parser.HtmlTable.Cell;
+import com.github.eahau.openapi.douyin.generator.parser.HtmlTable.Row;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import org.jsoup.Jsoup;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link HtmlTable#of(CharSequence)} 与基于 jsoup DOM 的 {@link HtmlTable#of(org.jsoup.nodes.Element)} 结果一致.
+ */
+public class HtmlTableTest {
+
+    /**
+     * src/test/resources/html-tables 下的文档 table，取自已生成的 openapi.json 中的描述.
+     */
+    static final List<String> FIXTURES = ImmutableList.of(
+            "dop-service-whitelist.html",
+            "dop-service-whitelist-short.html",
+            "dop-virtual-avatar.html",
+            "mini-app-guide-config.html",
+            "mini-app-directed-plan-status.html",
+            "mini-app-directed-plan-status-th.html",
+            "mini-app-common-plan-status.html"
+    );
+
+    static String fixture(String name) throws IOException {
+        return Resources.toString(Resources.getResource("html-tables/" + name), StandardCharsets.UTF_8);
+    }
+
+    static List<Object> describe(HtmlTable table) {
+        return Arrays.asList(describe(table.getRows()), describe(table.getNextRows()), table.getListItems(), table.getData());
+    }
+
+    static List<Object> describe(List<Row> rows) {
+        return rows.stream()
+                .map(row -> Arrays.<Object>asList(
+                        row.getTexts(),
+                        row.eachText(),
+                        row.getCells().stream().map(HtmlTableTest::describe).collect(Collectors.toList())
+                ))
+                .collect(Collectors.toList());
+    }
+
+    static List<Object> describe(Cell cell) {
+        return Arrays.asList(cell.getText(), cell.isHasText(), cell.getColspan(), cell.colspanAttr());
+    }
+
+    static void assertSameAsJsoup(String html) {
+        assertEquals(html, describe(HtmlTable.of(Jsoup.parse(html))), describe(HtmlTable.of(html)));
+    }
+
+    /**
+     * 由 tokenizer 直接解析，没有回退到 jsoup.
+     */
+    static void assertTokenized(String html) {
+        assertNotNull(html, new HtmlTable.Tokenizer(html).tokenize());
+        assertSameAsJsoup(html);
+    }
+
+    @Test
+    public void docTables() throws IOException {
+        for (final String name : FIXTURES) {
+            assertSameAsJsoup(fixture(name));
+        }
+    }
+
+    @Test
+    public void simpleDocTablesAreTokenized() throws IOException {
+        for (final String name : FIXTURES) {
+            final String html = fixture(name);
+            if (!html.startsWith("<ul>")) {
+                assertTokenized(html);
+            }
+        }
+    }
+
+    /**
+     * 带有 rowspan/colspan、data-colwidth 及 p、span 嵌套的 table，去掉 tokenizer 不支持的列表和 colgroup 后直接解析.
+     */
+    @Test
+    public void richDocTablesWithoutColgroup() throws IOException {
+        final String html = fixture("dop-service-whitelist-short.html");
+        assertTokenized(html.substring(html.indexOf("<table")).replaceAll("<colgroup>.*?</colgroup>", ""));
+
+        // 单元格中有列表，只能回退到 jsoup
+        final String withList = fixture("dop-service-whitelist.html");
+        final String table = withList.substring(withList.indexOf("<table")).replaceAll("<colgroup>.*?</colgroup>", "");
+        assertNull(new HtmlTable.Tokenizer(table).tokenize());
+        assertSameAsJsoup(table);
+    }
+
+    @Test
+    public void entities() {
+        assertTokenized("<table><tr><th>名称</th></tr><tr><td>a &amp; b &lt;c&gt; &quot;d&quot; &#20013;&#x6587;</td></tr></table>");
+        assertTokenized("<table><tr><td>a&nbsp;&nbsp;b &copy &amp c &unknown; &#0; &#xZZ;</td></tr></table>");
+        assertTokenized("<table><tr><td title=\"a &amp; b\" colspan=\"&#50;\">x</td></tr></table>");
+    }
+
+    @Test
+    public void nestedTags() {
+        assertTokenized("<table><tr><td><p><span style=\"color: #373C43;\">a</span><b>b</b></p><p>c</p>d<br>e</td>"
+                + "<th><code>x</code> <em>y</em></th></tr></table>");
+        assertTokenized("<table><tr><td><div><div>a</div></div><div>b</div> c</td></tr></table>");
+        assertSameAsJsoup("<table><tr><td><table><tr><td>inner</td></tr></table>outer</td></tr></table>");
+        assertSameAsJsoup("<table><tr><td><ul><li>a</li><li>b</li></ul></td></tr></table>");
+    }
+
+    @Test
+    public void rowspanAndColspan() {
+        assertTokenized("<table><tr><th colspan=\"2\">h</th></tr>"
+                + "<tr><td rowspan=\"2\">a</td><td colspan=1>b</td></tr>"
+                + "<tr><td COLSPAN='3'>c</td><td colspan>d</td><td colspan=\"\">e</td></tr></table>");
+    }
+
+    @Test
+    public void unclosedTags() {
+        assertTokenized("<table><tr><td>a<td>b<tr><td>c</table>");
+        assertTokenized("<table><tr><td><p>a<span>b</td><td>c</tr></table>");
+        assertTokenized("<table><tr><th>a</th></tr><tr><td>b</td>");
+        assertTokenized("<table><tr><td>a</td></tr><tr><td>b");
+        // 多余的结束标签由 jsoup 处理
+        assertSameAsJsoup("<table><tr><td>a</b></i>b</td></tr></table>");
+    }
+
+    @Test
+    public void sections() {
+        assertTokenized("<table><thead><tr><th>a</th></tr></thead>"
+                + "<tbody><tr><td>1</td></tr><tr><td>2</td></tr><tr><td>3</td></tr></tbody></table>");
+        assertTokenized("<table><tbody><tr><td>1</td></tr><tbody><tr><td>2</td></tr></table>");
+    }
+
+    @Test
+    public void whitespace() {
+        assertTokenized("<table>\n  <tr>\n    <td>  a \n\t b  </td>\n    <td> </td>\n  </tr>\n</table>\n");
+    }
+
+    @Test
+    public void dataAttribute() {
+        assertTokenized("<div data='{\"fields\": [{\"name\": \"appid\", \"type\": \"string\"}]}'></div>");
+        assertTokenized("<div data=\"{&quot;a&quot;: 1}\"></div><div data='{\"b\": 2}'></div>");
+    }
+
+    @Test
+    public void unsupportedFallsBackToJsoup() {
+        for (final String html : Arrays.asList(
+                "<ul><li>a</li><li>b <b>c</b></li></ul>",
+                "<table><tr><td>a<!-- comment -->b</td></tr></table>",
+                "<table><tr><td><script>var a = '<td>';</script></td></tr></table>"
+        )) {
+            assertNull(html, new HtmlTable.Tokenizer(html).tokenize());
+            assertSameAsJsoup(html);
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.github.eahau.openapi.douyin.generator.Benchmarks;
+import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.DocResponse;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * json 文档输出占位 table 与渲染完整 table html 后再解析的耗时对比，使用 {@link JsonDocParserTest#FIXTURES}.
+ */
+public class JsonDocParserBenchmark {
+
+    @Test
+    public void placeholderVsRenderedHtml() throws Exception {
+        Benchmarks.assumeEnabled();
+
+        final List<DocResponse> responses = JsonDocParserTest.FIXTURES.stream()
+                .map(name -> {
+                    try {
+                        return JsonDocParserTest.fixture(name);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+        final List<String> contents = responses.stream().map(DocResponse::getContent).collect(Collectors.toList());
+
+        for (int i = 0; i < responses.size(); i++) {
+            final DocResponse response = responses.get(i);
+            response.setContent(contents.get(i));
+            final String expected = JsonDocParserTest.describe(JsonDocParserTest.parseRenderedHtml(response));
+            response.setContent(contents.get(i));
+            assertEquals(expected, JsonDocParserTest.describe(response.toGeneratorContext()));
+        }
+
+        final double rendered = Benchmarks.measure(500, 2000, () -> {
+            int fields = 0;
+            for (int i = 0; i < responses.size(); i++) {
+                final DocResponse response = responses.get(i);
+                response.setContent(contents.get(i));
+                fields += JsonDocParserTest.parseRenderedHtml(response).getBodyFields().size();
+            }
+            return fields;
+        });
+        final double placeholder = Benchmarks.measure(500, 2000, () -> {
+            int fields = 0;
+            for (int i = 0; i < responses.size(); i++) {
+                final DocResponse response = responses.get(i);
+                response.setContent(contents.get(i));
+                fields += response.toGeneratorContext().getBodyFields().size();
+            }
+            return fields;
+        });
+
+        Benchmarks.report("json docs x" + responses.size(), "rendered html", rendered, "placeholder", placeholder);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.github.eahau.openapi.douyin.generator.GeneratorContent;
+import com.github.eahau.openapi.douyin.generator.Misc;
+import com.github.eahau.openapi.douyin.generator.api.DouYinOpenApiListApi.ApiListResponse;
+import com.github.eahau.openapi.douyin.generator.api.DouYinOpenDocApi.DocResponse;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import io.swagger.v3.core.util.Json;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * json 文档中的 table 在 markdown 中只是占位，解析结果与输出完整 table html 后再解析一致.
+ */
+public class JsonDocParserTest {
+
+    /**
+     * src/test/resources/json-docs 下的 json 文档（type = 1）响应.
+     */
+    static final List<String> FIXTURES = ImmutableList.of(
+            "refund-create.json",
+            "order-update.json"
+    );
+
+    static DocResponse fixture(String name) throws IOException {
+        return Misc.GSON.fromJson(Resources.toString(Resources.getResource("json-docs/" + name), StandardCharsets.UTF_8), DocResponse.class);
+    }
+
+    /**
+     * 渲染完整的 table html，由 {@link HtmlParser} 从 html 中解析 table.
+     */
+    static GeneratorContent parseRenderedHtml(DocResponse response) {
+        final JsonDocParser jsonDocParser = new JsonDocParser(ApiListResponse.readOps(response.getContent()));
+        response.setContent(jsonDocParser.expandTables(jsonDocParser.toMarkdown()));
+        return new HtmlParser(response).parse();
+    }
+
+    /**
+     * 生成的 openapi 内容.
+     */
+    static String describe(GeneratorContent content) {
+        return String.join("\n", content.getTitle(), content.getDesc(), Json.pretty(content.toPathItem()), Json.pretty(content.getComponents()));
+    }
+
+    @Test
+    public void sameAsRenderedHtml() throws IOException {
+        for (final String name : FIXTURES) {
+            final GeneratorContent expected = parseRenderedHtml(fixture(name));
+            final GeneratorContent actual = fixture(name).toGeneratorContext();
+
+            assertNotNull(name, actual.getPath());
+            assertFalse(name, actual.getBodyFields().isEmpty());
+            assertEquals(name, describe(expected), describe(actual));
+        }
+    }
+
+    @Test
+    public void markdownOnlyContainsPlaceholders() throws IOException {
+        final DocResponse response = fixture("order-update.json");
+        final JsonDocParser jsonDocParser = new JsonDocParser(ApiListResponse.readOps(response.getContent()));
+        final String markdown = jsonDocParser.toMarkdown();
+
+        assertFalse(markdown, markdown.contains("<td>"));
+        assertTrue(markdown, JsonDocParser.TABLE_PLACEHOLDER.matcher(markdown).find());
+
+        final String html = jsonDocParser.expandTables(markdown);
+        assertFalse(html, JsonDocParser.TABLE_PLACEHOLDER.matcher(html).find());
+        assertTrue(html, html.contains("<td>初始化 &lt;未支付&gt;</td>"));
+    }
+
+    /**
+     * 接口说明中的 table 与后续文本合并为一个 html block，desc 中保留完整的 html.
+     */
+    @Test
+    public void descKeepsTableHtml() throws IOException {
+        final GeneratorContent content = fixture("order-update.json").toGeneratorContext();
+
+        assertTrue(content.getDesc(), content.getDesc().contains("<th>状态</th>"));
+        assertTrue(content.getDesc(), content.getDesc().contains("注意：状态可能变化"));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.github.eahau.openapi.douyin.generator.Benchmarks;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link HtmlParser#tableToDocFields} 与逐个单元格查找列的旧实现（{@link TableToDocFieldsTest#legacyTableToDocFields}）的耗时对比，
+ * 使用 10k 行的宽表和深层嵌套表.
+ */
+public class TableToDocFieldsBenchmark {
+
+    static final int ROWS = 10_000;
+
+    /**
+     * 名称、类型、必填、描述、示例之后跟着 20 个无关的列.
+     */
+    static HtmlTable wideTable() {
+        final StringBuilder html = new StringBuilder("<table><tr><th>参数名</th><th>类型</th><th>必填</th><th>描述</th><th>示例</th>");
+        for (int i = 0; i < 20; i++) {
+            html.append("<th>其他").append(i).append("</th>");
+        }
+        html.append("</tr>");
+        for (int row = 0; row < ROWS; row++) {
+            html.append("<tr><td>field_").append(row).append("</td><td>string</td><td>是</td><td>描述 ")
+                    .append(row).append("</td><td>").append(row).append("</td>");
+            for (int i = 0; i < 20; i++) {
+                html.append("<td>v").append(i).append("</td>");
+            }
+            html.append("</tr>");
+        }
+        return HtmlTable.of(html.append("</table>"));
+    }
+
+    /**
+     * 用 . 前缀表示层级，每 8 层回到顶层.
+     */
+    static HtmlTable deepTable() {
+        final StringBuilder html = new StringBuilder("<table><tr><th>字段名</th><th>类型</th><th>是否必传</th><th>描述</th></tr>");
+        for (int row = 0; row < ROWS; row++) {
+            final int level = row % 8;
+            html.append("<tr><td>").append(StringUtils.repeat('.', level)).append("field_").append(row)
+                    .append("</td><td>").append(level == 7 ? "string" : "struct").append("</td><td>否</td><td>层级 ")
+                    .append(level).append("</td></tr>");
+        }
+        return HtmlTable.of(html.append("</table>"));
+    }
+
+    static void compare(String name, HtmlTable table) throws Exception {
+        assertEquals(TableToDocFieldsTest.describe(TableToDocFieldsTest.legacyTableToDocFields(table)),
+                TableToDocFieldsTest.describe(HtmlParser.tableToDocFields(table)));
+
+        final double legacy = Benchmarks.measure(5, 20, () -> TableToDocFieldsTest.legacyTableToDocFields(table).size());
+        final double plan = Benchmarks.measure(5, 20, () -> HtmlParser.tableToDocFields(table).size());
+
+        Benchmarks.report(name, "getByColumnName", legacy, "column plan", plan);
+    }
+
+    @Test
+    public void wide() throws Exception {
+        Benchmarks.assumeEnabled();
+        compare("wide table 10k rows x 25 columns", wideTable());
+    }
+
+    @Test
+    public void deep() throws Exception {
+        Benchmarks.assumeEnabled();
+        compare("deep table 10k rows, 8 levels", deepTable());
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2023 eahau@foxmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.eahau.openapi.douyin.generator.parser;
+
+import com.github.eahau.openapi.douyin.generator.DocField;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.RangeMap;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * {@link HtmlParser#tableToDocFields} 使用 {@link HtmlParser.ColumnPlan} 后，与逐个单元格调用
+ * {@link DocField#getByColumnName} 的实现结果一致.
+ */
+public class TableToDocFieldsTest {
+
+    /**
+     * 引入 ColumnPlan 之前的实现.
+     */
+    static List<DocField> legacyTableToDocFields(HtmlTable table) {
+
+        final List<HtmlTable.Row> elements = table.getRows();
+
+        if (elements.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final HtmlTable.Row metadata = Objects.requireNonNull(elements.get(0), "table 缺少 头信息");
+
+        final RangeMap<Integer, String> rangeMap = HtmlParser.toRangeMetadata(metadata);
+
+        final List<String> columns = metadata.eachText();
+
+        final Map<Integer, DocField> lastParentColumn = Maps.newTreeMap(Comparator.<Integer>comparingInt(k -> k).reversed());
+
+        return table.getNextRows()
+                .stream()
+                .map(HtmlTable.Row::getCells)
+                .map(values -> {
+                    final DocField docField = new DocField();
+
+                    int nameIndex = 0, colspanSum = 0;
+
+                    for (int i = 0; i < values.size(); i++) {
+                        final HtmlTable.Cell element = values.get(i);
+                        final String value = element.getText();
+
+                        final boolean hasColspan = element.hasColspan();
+                        if (hasColspan) {
+                            colspanSum += HtmlParser.calculateColspan(Collections.singletonList(element));
+                        }
+
+                        if (StringUtils.isBlank(value)) {
+                            continue;
+                        }
+
+                        final int index = hasColspan ? colspanSum - 1 : i;
+
+                        String column = rangeMap.get(index);
+                        if (StringUtils.isBlank(column)) {
+                            column = i == 1 ? columns.get(0) : Lists.reverse(columns.subList(0, i))
+                                    .stream()
+                                    .filter(StringUtils::isNotBlank)
+                                    .findFirst()
+                                    .orElse("");
+                        }
+                        final BiConsumer<DocField, String> setter = DocField.getByColumnName(column);
+                        if (setter != null) {
+                            final String name = docField.getName();
+                            setter.accept(docField, value);
+
+                            if (StringUtils.isEmpty(name) && StringUtils.isNotEmpty(docField.getName())) {
+                                nameIndex = i;
+                            }
+                        }
+
+                    }
+
+                    final String name = docField.getName();
+                    if (StringUtils.isBlank(name) || StringUtils.equalsAny(name, ".", "-")) {
+                        // 忽略一条空数据
+                        return null;
+                    }
+
+                    final String levelKey = name.startsWith(".") ? "." : (name.startsWith("-") ? "-" : null);
+                    if (levelKey != null) {
+                        final int dotCount = StringUtils.countMatches(name, levelKey.charAt(0));
+                        nameIndex = dotCount;
+                        docField.setName(name.substring(dotCount).trim());
+                    }
+
+                    final int finalNameIndex = nameIndex;
+                    lastParentColumn.entrySet()
+                            .stream()
+                            .filter(entry -> entry.getKey() < finalNameIndex)
+                            .findFirst()
+                            .map(Entry::getValue)
+                            .ifPresent(parent -> {
+                                docField.setParent(parent);
+                                parent.getChildren().add(docField);
+                            });
+
+                    if (docField.isObjectType() || docField.isArrayObject()) {
+                        lastParentColumn.put(nameIndex, docField);
+                    }
+
+                    return nameIndex == 0 ? docField : null;
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    static List<Object> describe(List<DocField> docFields) {
+        return docFields.stream().map(TableToDocFieldsTest::describe).collect(Collectors.toList());
+    }
+
+    static List<Object> describe(DocField docField) {
+        return Arrays.asList(
+                docField.getFullName(), docField.getType(), docField.isRequired(), docField.getDesc(),
+                docField.getDefV(), docField.getExample(), docField.getMaxLength(),
+                describe(docField.getChildren())
+        );
+    }
+
+    /**
+     * 两种实现的结果（或抛出的异常类型）一致.
+     */
+    static Object assertSameAsLegacy(String html) {
+        final HtmlTable table = HtmlTable.of(html);
+        Object expected, actual;
+        try {
+            expected = describe(legacyTableToDocFields(table));
+        } catch (RuntimeException e) {
+            expected = e.getClass();
+        }
+        try {
+            actual = describe(HtmlParser.tableToDocFields(table));
+        } catch (RuntimeException e) {
+            actual = e.getClass();
+        }
+        assertEquals(html, expected, actual);
+        return actual;
+    }
+
+    static String row(String tag, String... cells) {
+        return "<tr>" + Arrays.stream(cells)
+                .map(it -> it.startsWith("<") ? it : "<" + tag + ">" + it + "</" + tag + ">")
+                .collect(Collectors.joining()) + "</tr>";
+    }
+
+    @Test
+    public void flat() {
+        assertNotEquals(Collections.emptyList(), assertSameAsLegacy("<table>"
+                + row("th", "参数名", "类型", "必填", "描述", "示例")
+                + row("td", "app_id", "string", "是", "应用 id", "tt123")
+                + row("td", "count", "int64", "否", "数量", "10")
+                + row("td", "", "", "", "", "")
+                + row("td", "-", "string", "否", "忽略", "")
+                + "</table>"));
+    }
+
+    /**
+     * 文档中的 table 每个单元格都带有 colspan，嵌套字段通过前面的空单元格缩进.
+     */
+    static String colspanRow(String tag, Object... cells) {
+        final StringBuilder sb = new StringBuilder("<tr>");
+        for (int i = 0; i < cells.length; i += 2) {
+            sb.append('<').append(tag).append(" colspan=\"").append(cells[i + 1]).append("\">")
+                    .append(cells[i]).append("</").append(tag).append('>');
+        }
+        return sb.append("</tr>").toString();
+    }
+
+    @Test
+    public void colspanHeaderAndRows() {
+        assertNotEquals(Collections.emptyList(), assertSameAsLegacy("<table>"
+                + colspanRow("th", "参数名", 3, "类型", 1, "必填", 1, "说明", 1)
+                + colspanRow("td", "data", 3, "struct", 1, "是", 1, "数据", 1)
+                + colspanRow("td", "", 1, "user", 2, "object", 1, "是", 1, "用户", 1)
+                + colspanRow("td", "", 1, "", 1, "open_id", 1, "string", 1, "是", 1, "用户 id", 1)
+                + colspanRow("td", "", 1, "", 1, "nickname", 1, "string", 1, "否", 1, "昵称", 1)
+                + colspanRow("td", "", 1, "items", 2, "[]struct", 1, "否", 1, "列表", 1)
+                + colspanRow("td", "", 1, "", 1, "sku_id", 1, "string", 1, "是", 1, "商品 id", 1)
+                + colspanRow("td", "err_no", 3, "int", 1, "是", 1, "错误码", 1)
+                + "</table>"));
+        assertSameAsLegacy("<table>"
+                + colspanRow("th", "参数名", 2, "类型", 1, "描述", 2)
+                + colspanRow("td", "a", 2, "string", 1, "a", 1, "补充", 1)
+                + colspanRow("td", "b", 1, "c", 1, "int", 1, "c", 2)
+                + "</table>");
+    }
+
+    @Test
+    public void emptyHeaderCellsFallBackToPreviousColumn() {
+        assertSameAsLegacy("<table>"
+                + row("th", "名称", "", "类型", "", "备注")
+                + row("td", "a", "b", "string", "x", "说明 a")
+                + row("td", "", "c", "object", "", "说明 c")
+                + row("td", "", "", "d", "int", "说明 d")
+                + "</table>");
+    }
+
+    @Test
+    public void nestedParentsByPrefix() {
+        assertNotEquals(Collections.emptyList(), assertSameAsLegacy("<table>"
+                + row("th", "字段名", "类型", "是否必传", "描述")
+                + row("td", "order", "struct", "是", "订单")
+                + row("td", ".order_id", "string", "是", "订单号")
+                + row("td", ".items", "[]struct", "是", "商品")
+                + row("td", "..sku_id", "string", "是", "sku")
+                + row("td", "..attrs", "object", "否", "属性")
+                + row("td", "...k", "string", "否", "key")
+                + row("td", ".amount", "int64", "是", "金额")
+                + row("td", "extra", "object", "否", "额外")
+                + row("td", "-remark", "string", "否", "备注")
+                + row("td", "--detail", "string", "否", "深层，没有同级的上级")
+                + row("td", "....orphan", "string", "否", "跳级")
+                + "</table>"));
+    }
+
+    @Test
+    public void nestedParentsByColumn() {
+        assertNotEquals(Collections.emptyList(), assertSameAsLegacy("<table>"
+                + row("th", "参数", "", "", "类型", "描述")
+                + row("td", "data", "", "", "struct", "数据")
+                + row("td", "", "list", "", "[]struct", "列表")
+                + row("td", "", "", "id", "string", "id")
+                + row("td", "", "total", "", "int", "总数")
+                + row("td", "code", "", "", "int", "错误码")
+                + "</table>"));
+    }
+
+    @Test
+    public void shortHeader() {
+        assertSameAsLegacy("<table>"
+                + row("th", "名称", "类型")
+                + row("td", "", "", "", "a", "string")
+                + "</table>");
+    }
+
+    @Test
+    public void docTables() throws IOException {
+        for (final String name : HtmlTableTest.FIXTURES) {
+            assertSameAsLegacy(HtmlTableTest.fixture(name));
+        }
+    }
+
+}